@@ -0,0 +1,83 @@
+package com.springcontext.springrestapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcontext.springrestapi.controllers.CompanyController;
+import com.springcontext.springrestapi.controllers.dto.company.CompanyResponseDto;
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts and serializes a company with all its employees, as GET /company/{id} and PUT
+ * /company/{company_id}/people/{person_id} do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompanyConversionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int employees;
+
+    private ObjectMapper objectMapper;
+
+    private Company company;
+
+    private CompanyResponseDto companyResponseDto;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        this.company = new Company();
+
+        this.company.setId(1L);
+        this.company.setName("Spring-Context");
+
+        for (long i = 0; i < this.employees; i++) {
+            Address address = new Address();
+
+            address.setId(i);
+            address.setStreet("Main street");
+            address.setStreetNumber((int) i);
+            address.setZipCode("A0B 1C2");
+            address.setCity("Vancouver");
+            address.setCountry("Canada");
+
+            Person person = new Person();
+
+            person.setId(i);
+            person.setFirstname("John" + i);
+            person.setLastname("Doe");
+            person.setCompany(this.company);
+            person.addAddress(address);
+
+            this.company.addEmployee(person);
+        }
+
+        this.companyResponseDto = CompanyController.convertModel(this.company);
+    }
+
+    @Benchmark
+    public CompanyResponseDto convert() {
+        return CompanyController.convertModel(this.company);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.companyResponseDto);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(CompanyController.convertModel(this.company));
+    }
+}
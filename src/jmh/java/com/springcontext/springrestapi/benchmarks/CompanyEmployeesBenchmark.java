@@ -0,0 +1,167 @@
+package com.springcontext.springrestapi.benchmarks;
+
+import com.springcontext.springrestapi.Application;
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.CompanyRepository;
+import com.springcontext.springrestapi.repositories.PersonRepository;
+import com.springcontext.springrestapi.services.CompanyService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads the employees of a company through the services, against an in-memory H2 database, as the
+ * mapping of Company.employees determines: each operation is a round of {@code moves} addEmployee calls, or of
+ * {@code reads} employee list reads with cold caches. The SQL statements of every round are printed next to its time.
+ *
+ * Run with: ./mvnw -P benchmarks verify -Djmh.args="CompanyEmployeesBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CompanyEmployeesBenchmark {
+
+    @Param({"150"})
+    private int employees;
+
+    @Param({"50"})
+    private int moves;
+
+    @Param({"100"})
+    private int reads;
+
+    private ConfigurableApplicationContext context;
+
+    private CompanyService companyService;
+
+    private SessionFactory sessionFactory;
+
+    private Statistics statistics;
+
+    private long companyId;
+
+    private long otherCompanyId;
+
+    private final List<Long> movedPersonIds = new ArrayList<>();
+
+    /**
+     * Whether the moved people are in the other company, from where the next round moves them back.
+     */
+    private boolean moved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:employees;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=sa",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.com.springcontext.springrestapi=WARN",
+                        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+                )
+                .run();
+
+        this.companyService = this.context.getBean(CompanyService.class);
+        this.sessionFactory = this.context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class);
+        this.statistics = this.sessionFactory.getStatistics();
+
+        CompanyRepository companyRepository = this.context.getBean(CompanyRepository.class);
+        PersonRepository personRepository = this.context.getBean(PersonRepository.class);
+
+        Company company = this.createCompany(companyRepository, "Spring-Context");
+
+        this.companyId = company.getId();
+        this.otherCompanyId = this.createCompany(companyRepository, "Spring-Boot").getId();
+
+        List<Person> people = new ArrayList<>(this.employees);
+
+        for (int i = 0; i < this.employees; i++) {
+            Person person = new Person();
+
+            person.setFirstname("Firstname " + i);
+            person.setLastname("Lastname " + i);
+            person.setCompany(company);
+
+            people.add(person);
+        }
+
+        for (Person person : personRepository.saveAll(people)) {
+            if (this.movedPersonIds.size() < this.moves) {
+                this.movedPersonIds.add(person.getId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startRound() {
+        this.statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endRound() {
+        System.out.println();
+        System.out.println(this.statistics.getPrepareStatementCount() + " statements");
+    }
+
+    /**
+     * Moves people from one company to the other, each round moving them back.
+     */
+    @Benchmark
+    public long addEmployee() {
+        long targetCompanyId = this.moved ? this.companyId : this.otherCompanyId;
+        long result = 0;
+
+        for (Long personId : this.movedPersonIds) {
+            result += this.companyService.addEmployee(targetCompanyId, personId, Company::getId);
+        }
+
+        this.moved = !this.moved;
+
+        return result;
+    }
+
+    /**
+     * Reads the employee list of the company with the second-level and query caches evicted before every read.
+     */
+    @Benchmark
+    public long getEmployees() {
+        long result = 0;
+
+        for (int i = 0; i < this.reads; i++) {
+            this.sessionFactory.getCache().evictAllRegions();
+
+            result += this.companyService.getEmployees(this.companyId).size();
+        }
+
+        return result;
+    }
+
+    private Company createCompany(CompanyRepository companyRepository, String name) {
+        Company company = new Company();
+
+        company.setName(name);
+
+        return companyRepository.save(company);
+    }
+}
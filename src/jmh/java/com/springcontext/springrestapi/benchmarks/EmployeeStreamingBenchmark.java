@@ -0,0 +1,78 @@
+package com.springcontext.springrestapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcontext.springrestapi.controllers.PersonController;
+import com.springcontext.springrestapi.controllers.PersonRowJsonWriter;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways GET /company/{id}/people can write its rows: converting them into response objects first,
+ * or streaming them with {@link PersonRowJsonWriter}. Run with -prof gc to compare the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeStreamingBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"100000"})
+    private int employees;
+
+    @Param({"2"})
+    private int addressesPerEmployee;
+
+    private ObjectMapper objectMapper;
+
+    private List<PersonAddressRow> rows;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.rows = new ArrayList<>(this.employees * this.addressesPerEmployee);
+
+        for (long i = 0; i < this.employees; i++) {
+            for (long j = 0; j < this.addressesPerEmployee; j++) {
+                this.rows.add(new PersonAddressRow(
+                        i, "John" + i, "Doe", 1L, j, "Main street", (int) j, "A0B 1C2", "Vancouver", "Canada", 0L, 0L
+                ));
+            }
+        }
+    }
+
+    @Benchmark
+    public void materialized() throws IOException {
+        this.objectMapper.writeValue(DISCARD, PersonController.convertRows(this.rows, true));
+    }
+
+    @Benchmark
+    public long streamed() throws IOException {
+        JsonGenerator generator = this.objectMapper.getFactory().createGenerator(DISCARD);
+
+        PersonRowJsonWriter writer = new PersonRowJsonWriter(generator, true);
+
+        this.rows.forEach(writer);
+
+        return writer.finish();
+    }
+}
@@ -0,0 +1,81 @@
+package com.springcontext.springrestapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcontext.springrestapi.controllers.PersonController;
+import com.springcontext.springrestapi.controllers.dto.person.PersonResponseDto;
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts and serializes a single person with its addresses, as GET /person/{id}?expand=addresses does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonConversionBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int addresses;
+
+    private ObjectMapper objectMapper;
+
+    private Person person;
+
+    private PersonResponseDto personResponseDto;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Company company = new Company();
+
+        company.setId(1L);
+        company.setName("Spring-Context");
+
+        this.person = new Person();
+
+        this.person.setId(1L);
+        this.person.setFirstname("John");
+        this.person.setLastname("Doe");
+        this.person.setCompany(company);
+
+        for (long i = 0; i < this.addresses; i++) {
+            Address address = new Address();
+
+            address.setId(i);
+            address.setStreet("Main street");
+            address.setStreetNumber((int) i);
+            address.setZipCode("A0B 1C2");
+            address.setCity("Vancouver");
+            address.setCountry("Canada");
+
+            this.person.addAddress(address);
+        }
+
+        this.personResponseDto = PersonController.convertModel(this.person);
+    }
+
+    @Benchmark
+    public PersonResponseDto convert() {
+        return PersonController.convertModel(this.person);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.personResponseDto);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(PersonController.convertModel(this.person));
+    }
+}
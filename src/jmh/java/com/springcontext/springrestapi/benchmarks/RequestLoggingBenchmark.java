@@ -0,0 +1,150 @@
+package com.springcontext.springrestapi.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the logging cost of one GET /person/{id} on the request thread: the three synchronous info lines it
+ * used to emit, against the single access line written through the asynchronous appender with the business logs
+ * at debug. {@link #accessLineSynchronous()} isolates the gain of writing fewer lines from the gain of handing
+ * them to another thread. Run with -prof gc to compare the bytes allocated per request.
+ *
+ * The asynchronous appender drops events when its queue is full, so the benchmark measures the cost paid by the
+ * request thread, not the throughput of the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    // Spring Boot's console pattern, without the colors
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p ${PID:- } --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private static final String API_CALL_MESSAGE = "New API call: ";
+    private static final String SUCCESS_MESSAGE = "Success: ";
+
+    private LoggerContext context;
+
+    private Logger perCallLogger;
+
+    private Logger synchronousAccessLogger;
+
+    private Logger asynchronousAccessLogger;
+
+    private Logger businessLogger;
+
+    private long id;
+
+    @Setup
+    public void setUp() {
+        this.context = new LoggerContext();
+        this.id = 42;
+
+        this.perCallLogger = this.createLogger("per-call", this.createConsoleAppender());
+        this.synchronousAccessLogger = this.createLogger("access-synchronous", this.createConsoleAppender());
+
+        AsyncAppender asyncAppender = new AsyncAppender();
+
+        asyncAppender.setContext(this.context);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(this.createConsoleAppender());
+        asyncAppender.start();
+
+        this.asynchronousAccessLogger = this.createLogger("access-asynchronous", asyncAppender);
+
+        this.businessLogger = this.createLogger("business", this.createConsoleAppender());
+        this.businessLogger.setLevel(Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.stop();
+    }
+
+    @Benchmark
+    public void perCallLines() {
+        this.perCallLogger.info(API_CALL_MESSAGE + "Get a person");
+        this.perCallLogger.info("Trying to fetch Person with id {}", this.id);
+        this.perCallLogger.info(SUCCESS_MESSAGE + "Returning person with id {}", this.id);
+    }
+
+    @Benchmark
+    public void accessLineSynchronous() {
+        this.accessLine(this.synchronousAccessLogger);
+    }
+
+    @Benchmark
+    public void accessLineAsynchronous() {
+        this.accessLine(this.asynchronousAccessLogger);
+    }
+
+    private void accessLine(Logger accessLogger) {
+        if (this.businessLogger.isDebugEnabled()) {
+            this.businessLogger.debug("Trying to fetch Person with id {}", this.id);
+        }
+
+        if (this.businessLogger.isDebugEnabled()) {
+            this.businessLogger.debug(SUCCESS_MESSAGE + "Returning person with id {}", this.id);
+        }
+
+        accessLogger.info(
+                "method={} uri={} status={} duration_ms={} sql_statements={}",
+                "GET",
+                "/person/42",
+                200,
+                3L,
+                1L
+        );
+    }
+
+    private Appender<ILoggingEvent> createConsoleAppender() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+
+        encoder.setContext(this.context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+
+        appender.setContext(this.context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(DISCARD);
+        appender.start();
+
+        return appender;
+    }
+
+    private Logger createLogger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = this.context.getLogger(name);
+
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+
+        return logger;
+    }
+}
@@ -0,0 +1,101 @@
+package com.springcontext.springrestapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcontext.springrestapi.controllers.CompanyController;
+import com.springcontext.springrestapi.controllers.dto.company.CompanyResponseDto;
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes a company with its employees in each of the media types the controllers negotiate, with and without
+ * the gzip compression Tomcat applies to large responses. The throughput measures the CPU spent encoding a
+ * response, the bytes on the wire are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    @Param({"10", "1000"})
+    private int employees;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+
+    private CompanyResponseDto companyResponseDto;
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (this.format) {
+            case "smile":
+                this.objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            case "cbor":
+                this.objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                break;
+            default:
+                this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+
+        Company company = new Company();
+
+        company.setId(1L);
+        company.setName("Spring-Context");
+
+        for (long i = 0; i < this.employees; i++) {
+            Address address = new Address();
+
+            address.setId(i);
+            address.setStreet("Main street");
+            address.setStreetNumber((int) i);
+            address.setZipCode("A0B 1C2");
+            address.setCity("Vancouver");
+            address.setCountry("Canada");
+
+            Person person = new Person();
+
+            person.setId(i);
+            person.setFirstname("John" + i);
+            person.setLastname("Doe");
+            person.setCompany(company);
+            person.addAddress(address);
+
+            company.addEmployee(person);
+        }
+
+        this.companyResponseDto = CompanyController.convertModel(company);
+
+        System.out.printf(
+                "%n%s%s, %d employees: %d bytes on the wire%n",
+                this.format, this.gzip ? " + gzip" : "", this.employees, encode().length
+        );
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (OutputStream output = this.gzip ? new GZIPOutputStream(bytes) : bytes) {
+            this.objectMapper.writeValue(output, this.companyResponseDto);
+        }
+
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package com.springcontext.springrestapi.load;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the latency of every call per endpoint and prints throughput and percentiles once the run is over.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean success) {
+        Endpoint stats = this.endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+
+        stats.latencies.add(nanos);
+
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    public void reset() {
+        this.endpoints.clear();
+    }
+
+    public void report(PrintStream out, long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+
+        out.printf("%-32s %10s %8s %12s %10s %10s %10s%n", "endpoint", "calls", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+
+        long totalCalls = 0;
+
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(this.endpoints).entrySet()) {
+            long[] latencies = entry.getValue().latencies.stream().mapToLong(Long::longValue).toArray();
+
+            Arrays.sort(latencies);
+
+            totalCalls += latencies.length;
+
+            out.printf(
+                    "%-32s %10d %8d %12.1f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(),
+                    latencies.length,
+                    entry.getValue().errors.sum(),
+                    latencies.length / elapsedSeconds,
+                    LatencyRecorder.toMillis(LatencyRecorder.percentile(latencies, 50)),
+                    LatencyRecorder.toMillis(LatencyRecorder.percentile(latencies, 99)),
+                    LatencyRecorder.toMillis(latencies.length == 0 ? 0 : latencies[latencies.length - 1])
+            );
+        }
+
+        out.printf("%-32s %10d %8s %12.1f%n", "total", totalCalls, "", totalCalls / elapsedSeconds);
+    }
+
+    private static long percentile(long[] sortedLatencies, int percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+
+        return sortedLatencies[Math.max(index, 0)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static class Endpoint {
+
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,335 @@
+package com.springcontext.springrestapi.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcontext.springrestapi.Application;
+import com.springcontext.springrestapi.controllers.dto.address.AddressDto;
+import com.springcontext.springrestapi.controllers.dto.bulk.BulkItemResultDto;
+import com.springcontext.springrestapi.controllers.dto.bulk.BulkResponseDto;
+import com.springcontext.springrestapi.controllers.dto.company.CompanyRequestDto;
+import com.springcontext.springrestapi.controllers.dto.company.CompanyResponseDto;
+import com.springcontext.springrestapi.controllers.dto.person.PersonRequestDto;
+import com.springcontext.springrestapi.controllers.dto.person.PersonResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the application against an in-memory H2 database in MySQL mode, seeds companies, people and shared
+ * addresses through the API, then drives a mixed create/read/addAddress/addEmployee/delete traffic and prints
+ * throughput and p50/p99 latency per endpoint.
+ *
+ * Tuned through system properties, e.g. ./mvnw -P load-test verify -Dload.threads=32 -Dload.durationSeconds=120,
+ * -Dload.executionMode=async runs the application in the bounded asynchronous execution mode.
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 60);
+    private static final int COMPANIES = Integer.getInteger("load.companies", 50);
+    private static final int PEOPLE = Integer.getInteger("load.people", 10000);
+    private static final int ADDRESSES = Integer.getInteger("load.addresses", 500);
+    private static final String EXECUTION_MODE = System.getProperty("load.executionMode", "blocking");
+
+    private static final int SEED_CHUNK_SIZE = 500;
+
+    private static final String[] CITIES = {"Vancouver", "Burnaby", "Richmond", "Surrey", "Victoria"};
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private final List<Long> companyIds = new ArrayList<>();
+
+    private final List<Long> personIds = new ArrayList<>();
+
+    private final String baseUrl;
+
+    private LoadTest(int port) {
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=sa",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "execution.mode=" + EXECUTION_MODE,
+                        "logging.level.com.springcontext.springrestapi=WARN",
+                        "logging.level.access=WARN"
+                )
+                .run(args);
+
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            new LoadTest(port).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    private void run() throws Exception {
+        log.warn("Seeding {} companies, {} people and {} addresses", COMPANIES, PEOPLE, ADDRESSES);
+
+        this.seed();
+
+        log.warn("Warming up for {} s with {} threads", WARMUP_SECONDS, THREADS);
+
+        this.drive(WARMUP_SECONDS);
+        this.recorder.reset();
+
+        log.warn("Measuring for {} s with {} threads, {} execution", DURATION_SECONDS, THREADS, EXECUTION_MODE);
+
+        long elapsedNanos = this.drive(DURATION_SECONDS);
+
+        this.recorder.report(System.out, elapsedNanos);
+    }
+
+    private void seed() throws IOException {
+        for (int i = 0; i < COMPANIES; i++) {
+            CompanyRequestDto company = new CompanyRequestDto();
+
+            company.setName("Company " + i);
+
+            Response response = this.call("POST /company", "POST", "/company", company);
+
+            this.companyIds.add(response.read(CompanyResponseDto.class).getId());
+        }
+
+        for (int created = 0; created < PEOPLE; created += SEED_CHUNK_SIZE) {
+            List<PersonRequestDto> people = new ArrayList<>();
+
+            for (int i = created; i < Math.min(created + SEED_CHUNK_SIZE, PEOPLE); i++) {
+                people.add(this.randomPerson(i));
+            }
+
+            Response response = this.call("POST /person/bulk", "POST", "/person/bulk", people);
+
+            for (BulkItemResultDto item : response.read(BulkResponseDto.class).getItems()) {
+                if (Objects.nonNull(item.getId())) {
+                    this.personIds.add(item.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the traffic mix on every thread for the given duration and returns the time it actually took.
+     */
+    private long drive(int seconds) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    this.nextCall();
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 50% person reads, 10% company employee listings, 15% creations, 10% new addresses, 10% new employees
+     * and 5% deletions.
+     */
+    private void nextCall() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int roll = random.nextInt(100);
+
+        try {
+            if (roll < 50) {
+                this.call("GET /person/{id}", "GET", "/person/" + this.randomPersonId(), null);
+            } else if (roll < 60) {
+                this.call("GET /company/{id}/people", "GET", "/company/" + this.randomCompanyId() + "/people", null);
+            } else if (roll < 75) {
+                Response response = this.call("POST /person", "POST", "/person", this.randomPerson(random.nextInt()));
+
+                if (response.isSuccessful()) {
+                    this.addPerson(response.read(PersonResponseDto.class).getId());
+                }
+            } else if (roll < 85) {
+                this.call("PUT /person/{id}", "PUT", "/person/" + this.randomPersonId(), this.randomAddress());
+            } else if (roll < 95) {
+                this.call(
+                        "PUT /company/{id}/people/{id}",
+                        "PUT",
+                        "/company/" + this.randomCompanyId() + "/people/" + this.randomPersonId(),
+                        null
+                );
+            } else {
+                Long personId = this.removeRandomPerson();
+
+                if (Objects.nonNull(personId)) {
+                    this.call("DELETE /person/{id}", "DELETE", "/person/" + personId, null);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Call failed", e);
+        }
+    }
+
+    private Response call(String endpoint, String method, String path, Object body) throws IOException {
+        long start = System.nanoTime();
+
+        Response response = null;
+
+        try {
+            response = this.send(method, path, body);
+
+            return response;
+        } finally {
+            this.recorder.record(endpoint, System.nanoTime() - start, Objects.nonNull(response) && response.isSuccessful());
+        }
+    }
+
+    private Response send(String method, String path, Object body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + path).openConnection();
+
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        // PUT /company/{id}/people/{id} requires a JSON content type even though it has no body
+        connection.setRequestProperty("Content-Type", "application/json");
+
+        if (Objects.nonNull(body)) {
+            connection.setDoOutput(true);
+
+            try (OutputStream output = connection.getOutputStream()) {
+                this.objectMapper.writeValue(output, body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+
+        try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, Objects.isNull(input) ? new byte[0] : LoadTest.readAll(input));
+        }
+    }
+
+    private PersonRequestDto randomPerson(int index) {
+        PersonRequestDto person = new PersonRequestDto();
+
+        person.setFirstname("First" + index);
+        person.setLastname("Last" + index);
+        person.setCompany(Optional.of(this.randomCompanyId()));
+
+        List<AddressDto> addresses = new ArrayList<>();
+
+        for (int i = ThreadLocalRandom.current().nextInt(1, 4); i > 0; i--) {
+            addresses.add(this.randomAddress());
+        }
+
+        person.setAddresses(addresses);
+
+        return person;
+    }
+
+    /**
+     * Picks one of {@link #ADDRESSES} addresses, so that people share addresses as they would in real data.
+     */
+    private AddressDto randomAddress() {
+        int index = ThreadLocalRandom.current().nextInt(ADDRESSES);
+
+        AddressDto address = new AddressDto();
+
+        address.setStreet("Street " + index % 50);
+        address.setStreetNumber(index);
+        address.setZipCode(String.format("V%dA %d0%d", index % 10, index % 7, index % 3));
+        address.setCity(CITIES[index % CITIES.length]);
+        address.setCountry("Canada");
+
+        return address;
+    }
+
+    private long randomCompanyId() {
+        return this.companyIds.get(ThreadLocalRandom.current().nextInt(this.companyIds.size()));
+    }
+
+    private long randomPersonId() {
+        synchronized (this.personIds) {
+            return this.personIds.get(ThreadLocalRandom.current().nextInt(this.personIds.size()));
+        }
+    }
+
+    private void addPerson(long id) {
+        synchronized (this.personIds) {
+            this.personIds.add(id);
+        }
+    }
+
+    private Long removeRandomPerson() {
+        synchronized (this.personIds) {
+            if (this.personIds.size() <= 1) {
+                return null;
+            }
+
+            int index = ThreadLocalRandom.current().nextInt(this.personIds.size());
+            Long last = this.personIds.remove(this.personIds.size() - 1);
+
+            return index < this.personIds.size() ? this.personIds.set(index, last) : last;
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+
+        for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+            output.write(buffer, 0, read);
+        }
+
+        return output.toByteArray();
+    }
+
+    private class Response {
+
+        private final int status;
+
+        private final byte[] body;
+
+        private Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private boolean isSuccessful() {
+            return this.status < 400;
+        }
+
+        private <T> T read(Class<T> type) throws IOException {
+            return LoadTest.this.objectMapper.readValue(new String(this.body, StandardCharsets.UTF_8), type);
+        }
+    }
+}
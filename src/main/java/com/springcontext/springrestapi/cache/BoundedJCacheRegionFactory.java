@@ -0,0 +1,69 @@
+package com.springcontext.springrestapi.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.JCacheRegionFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+
+import javax.cache.Cache;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * JCache region factory creating every Hibernate region as a heap-bounded Ehcache with a time-to-live.
+ *
+ * The bounds are read from the Hibernate properties {@value #TIME_TO_LIVE_SECONDS} and {@value #MAX_ENTRIES}. The
+ * update timestamps region is left unbounded and never expires: dropping an entry from it would let the query
+ * cache serve stale results.
+ */
+@Slf4j
+public class BoundedJCacheRegionFactory extends JCacheRegionFactory {
+
+    public static final String TIME_TO_LIVE_SECONDS = "hibernate.javax.cache.time_to_live_seconds";
+    public static final String MAX_ENTRIES = "hibernate.javax.cache.max_entries";
+
+    private static final long DEFAULT_TIME_TO_LIVE_SECONDS = 600;
+    private static final long DEFAULT_MAX_ENTRIES = 10_000;
+
+    @Override
+    protected Cache<Object, Object> createCache(
+            String regionName,
+            Properties properties,
+            CacheDataDescription metadata
+    ) {
+        CacheConfiguration<Object, Object> configuration;
+
+        if (UpdateTimestampsCache.REGION_NAME.equals(regionName)) {
+            configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(Long.MAX_VALUE))
+                    .build();
+        } else {
+            long timeToLive = getLong(properties, TIME_TO_LIVE_SECONDS, DEFAULT_TIME_TO_LIVE_SECONDS);
+            long maxEntries = getLong(properties, MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+
+            log.info("Creating cache region {} - time to live {}s, max entries {}", regionName, timeToLive, maxEntries);
+
+            configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLive)))
+                    .build();
+        }
+
+        return this.getCacheManager().createCache(
+                regionName,
+                Eh107Configuration.fromEhcacheCacheConfiguration(configuration)
+        );
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        Object value = properties.get(key);
+
+        return Objects.isNull(value) ? defaultValue : Long.parseLong(value.toString());
+    }
+}
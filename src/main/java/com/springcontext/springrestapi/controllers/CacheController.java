@@ -0,0 +1,67 @@
+package com.springcontext.springrestapi.controllers;
+
+import com.springcontext.springrestapi.controllers.dto.cache.CacheRegionStatisticsDto;
+import com.springcontext.springrestapi.controllers.dto.cache.CacheStatisticsDto;
+import com.springcontext.springrestapi.services.CacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+@RestController
+@Slf4j
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    @Autowired
+    public CacheController(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @GetMapping(path = "/cache/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CacheStatisticsDto getStatistics() {
+
+        return CacheController.convertModel(this.cacheService.getStatistics());
+    }
+
+    public static CacheStatisticsDto convertModel(Statistics statistics) {
+
+        CacheStatisticsDto dto = new CacheStatisticsDto();
+
+        dto.setHitCount(statistics.getSecondLevelCacheHitCount());
+        dto.setMissCount(statistics.getSecondLevelCacheMissCount());
+        dto.setPutCount(statistics.getSecondLevelCachePutCount());
+        dto.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        dto.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        dto.setRegions(
+                Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                        .sorted()
+                        .map(region -> CacheController.convertModel(
+                                region,
+                                statistics.getSecondLevelCacheStatistics(region)
+                        ))
+                        .collect(Collectors.toList())
+        );
+
+        return dto;
+    }
+
+    public static CacheRegionStatisticsDto convertModel(String region, SecondLevelCacheStatistics statistics) {
+
+        CacheRegionStatisticsDto dto = new CacheRegionStatisticsDto();
+
+        dto.setRegion(region);
+        dto.setHitCount(statistics.getHitCount());
+        dto.setMissCount(statistics.getMissCount());
+        dto.setPutCount(statistics.getPutCount());
+
+        return dto;
+    }
+}
@@ -1,44 +1,55 @@
 package com.springcontext.springrestapi.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springcontext.springrestapi.controllers.dto.company.CompanyRequestDto;
 import com.springcontext.springrestapi.controllers.dto.company.CompanyResponseDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetRequestDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetResponseDto;
+import com.springcontext.springrestapi.controllers.dto.page.PageResponseDto;
 import com.springcontext.springrestapi.controllers.dto.person.PersonResponseDto;
 import com.springcontext.springrestapi.entities.Company;
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import com.springcontext.springrestapi.services.CompanyService;
-import com.springcontext.springrestapi.services.PersonService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
+@RequestMapping(produces = {
+        MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE
+})
 @Slf4j
 public class CompanyController {
 
-    private static final String API_CALL_MESSAGE = "New API call: ";
     private static final String FAILURE_MESSAGE = "Failure: ";
     private static final String SUCCESS_MESSAGE = "Success: ";
 
     private final CompanyService companyService;
 
-    private final PersonService personService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CompanyController(CompanyService companyService, PersonService personService) {
+    public CompanyController(CompanyService companyService, ObjectMapper objectMapper) {
         this.companyService = companyService;
-        this.personService = personService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(path = "/company", consumes = MediaType.APPLICATION_JSON_VALUE)
     public CompanyResponseDto create(@RequestBody CompanyRequestDto company) {
 
-        log.info(API_CALL_MESSAGE + "Create a company");
-
         if (Objects.isNull(company)) {
             log.error(FAILURE_MESSAGE + "The request body is null");
             return null;
@@ -46,31 +57,154 @@ public class CompanyController {
 
         Company createdCompany = this.companyService.create(CompanyController.convertRequestDto(company));
 
-        log.info(SUCCESS_MESSAGE + "New company created!");
+        log.debug(SUCCESS_MESSAGE + "New company created!");
 
         return CompanyController.convertModel(createdCompany);
     }
 
-    @GetMapping(path = "/company/{id}/people", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<PersonResponseDto> getEmployees(@PathVariable long id) {
+    @GetMapping(path = "/company")
+    public PageResponseDto<CompanyResponseDto> getCompanies(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size
+    ) {
 
-        log.info(API_CALL_MESSAGE + "Get company employees");
+        Long afterId = Pagination.decodeCursor(cursor);
 
-        Company company = this.companyService.getById(id);
+        if (Objects.isNull(afterId)) {
+            log.error(FAILURE_MESSAGE + "Invalid cursor {}", cursor);
+            return null;
+        }
 
-        if (Objects.isNull(company)) {
+        int pageSize = Pagination.boundSize(size);
+
+        List<CompanyResponseDto> companies =
+                this.companyService.getPage(afterId, pageSize + 1, CompanyController::convertSummary);
+
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Returning companies after id {}", afterId);
+        }
+
+        return Pagination.toPage(companies, pageSize, CompanyResponseDto::getId, Function.identity());
+    }
+
+    @GetMapping(path = "/company/search")
+    public PageResponseDto<CompanyResponseDto> searchCompanies(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size
+    ) {
+
+        if (Objects.isNull(q) || q.trim().isEmpty()) {
+            log.error(FAILURE_MESSAGE + "No search query");
+            return null;
+        }
+
+        Pagination.KeyCursor after = Pagination.decodeCursor(cursor, 1);
+
+        if (Objects.isNull(after)) {
+            log.error(FAILURE_MESSAGE + "Invalid cursor {}", cursor);
+            return null;
+        }
+
+        int pageSize = Pagination.boundSize(size);
+
+        List<CompanyResponseDto> companies = this.companyService.search(
+                q, after.getKeys().get(0), after.getId(), pageSize + 1, CompanyController::convertSummary
+        );
+
+        log.debug(SUCCESS_MESSAGE + "Returning companies matching '{}'", q);
+
+        return Pagination.toCursorPage(companies, pageSize, CompanyController::searchCursor, Function.identity());
+    }
+
+    /**
+     * Reads many companies in one request, in the order of their ids and without their employees, like the listing.
+     * The ids matching no company are reported as missing.
+     */
+    @PostMapping(path = "/company/_mget", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MultiGetResponseDto<CompanyResponseDto> getCompaniesById(@RequestBody MultiGetRequestDto request) {
+
+        Set<Long> ids = MultiGet.distinctIds(request);
+
+        if (Objects.isNull(ids)) {
+            log.error(FAILURE_MESSAGE + "Between 1 and {} non null ids are expected", MultiGet.MAX_IDS);
+            return null;
+        }
+
+        Map<Long, CompanyResponseDto> companies =
+                this.companyService.getAllById(ids, CompanyController::convertSummary);
+
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Returning {} of {} companies", companies.size(), ids.size());
+        }
+
+        return MultiGet.toResponse(ids, companies);
+    }
+
+    @GetMapping(path = "/company/{id}/people")
+    public List<PersonResponseDto> getEmployees(
+            @PathVariable long id,
+            @RequestParam(required = false) Set<String> expand,
+            ServletWebRequest request
+    ) {
+
+        boolean withAddresses = PersonController.expandsAddresses(expand);
+
+        List<PersonAddressRow> employees = withAddresses
+                ? this.companyService.getEmployeesWithAddresses(id)
+                : this.companyService.getEmployees(id);
+
+        if (Objects.isNull(employees)) {
+            log.error(FAILURE_MESSAGE + "No company was found with id {}", id);
+            return null;
+        }
+
+        if (request.checkNotModified(PersonController.etag(employees, withAddresses, request))) {
+            log.debug(SUCCESS_MESSAGE + "Employees not modified");
+            return null;
+        }
+
+        log.debug(SUCCESS_MESSAGE + "Fetching all the employees!");
+
+        return PersonController.convertRows(employees, withAddresses);
+    }
+
+    /**
+     * Same response as {@link #getEmployees(long, Set)}, written row by row while the employees are read so that
+     * a large company is never materialized in memory.
+     */
+    @GetMapping(path = "/company/{id}/people", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamEmployees(
+            @PathVariable long id,
+            @RequestParam(required = false) Set<String> expand
+    ) {
+
+        if (!this.companyService.exists(id)) {
             log.error(FAILURE_MESSAGE + "No company was found with id {}", id);
             return null;
         }
 
-        log.info(SUCCESS_MESSAGE + "Fetching all the employees!");
+        boolean withAddresses = PersonController.expandsAddresses(expand);
+
+        return output -> {
+            JsonGenerator generator = this.objectMapper.getFactory().createGenerator(output);
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            PersonRowJsonWriter writer = new PersonRowJsonWriter(generator, withAddresses);
 
-        return company.getEmployees().stream().map(PersonController::convertModel).collect(Collectors.toList());
+            this.companyService.exportEmployees(id, withAddresses, writer);
+
+            long count = writer.finish();
+
+            if (log.isDebugEnabled()) {
+                log.debug(SUCCESS_MESSAGE + "Streamed {} employees", count);
+            }
+        };
     }
 
     @PutMapping(
             path = "/company/{company_id}/people/{person_id}",
-            produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE
     )
     public CompanyResponseDto addEmployee(
@@ -78,31 +212,25 @@ public class CompanyController {
             @PathVariable("person_id") long personId
     ) {
 
-        log.info(API_CALL_MESSAGE + "Add an employee in a company");
-
-        Company company = this.companyService.addEmployee(companyId, personId);
+        CompanyResponseDto company =
+                this.companyService.addEmployee(companyId, personId, CompanyController::convertModel);
 
         if (Objects.isNull(company)) {
             log.error(FAILURE_MESSAGE + "No company was found with id {} or the person does not exist", companyId);
             return null;
         }
 
-        return CompanyController.convertModel(company);
+        return company;
     }
 
     @DeleteMapping(path = "/company/{id}")
     public void delete(@PathVariable long id) {
-        log.info(API_CALL_MESSAGE + "Delete a company");
 
-        Company company = this.companyService.getById(id);
+        int detachedEmployees = this.companyService.delete(id);
 
-        if (Objects.nonNull(company)) {
-            company.getEmployees().forEach(employee -> {
-                this.personService.removeCompany(employee);
-            });
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Company deleted, {} employees detached", detachedEmployees);
         }
-
-        this.companyService.delete(id);
     }
 
     public static Company convertRequestDto(CompanyRequestDto dto) {
@@ -116,9 +244,7 @@ public class CompanyController {
 
     public static CompanyResponseDto convertModel(Company company) {
 
-        CompanyResponseDto dto = new CompanyResponseDto();
-
-        dto.setName(company.getName());
+        CompanyResponseDto dto = CompanyController.convertSummary(company);
 
         List<Person> employees = company.getEmployees();
 
@@ -130,4 +256,25 @@ public class CompanyController {
 
         return dto;
     }
+
+    /**
+     * The cursor resuming a search after this company, in the order of the results.
+     */
+    public static String searchCursor(CompanyResponseDto company) {
+        return Pagination.encodeCursor(Collections.singletonList(company.getName()), company.getId());
+    }
+
+    /**
+     * Converts a company without its employees, used by the listing endpoint where embedding every employee of
+     * every company would defeat the pagination.
+     */
+    public static CompanyResponseDto convertSummary(Company company) {
+
+        CompanyResponseDto dto = new CompanyResponseDto();
+
+        dto.setId(company.getId());
+        dto.setName(company.getName());
+
+        return dto;
+    }
 }
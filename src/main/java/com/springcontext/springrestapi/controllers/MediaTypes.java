@@ -0,0 +1,20 @@
+package com.springcontext.springrestapi.controllers;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The media types the controllers negotiate through the {@code Accept} header. Besides JSON, Spring MVC registers
+ * the Jackson Smile and CBOR converters as soon as their data formats are on the classpath: both encode the same
+ * DTOs in binary, smaller on the wire and cheaper to write than JSON text.
+ */
+public final class MediaTypes {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final MediaType APPLICATION_CBOR = MediaType.valueOf(APPLICATION_CBOR_VALUE);
+
+    private MediaTypes() {
+    }
+}
@@ -0,0 +1,66 @@
+package com.springcontext.springrestapi.controllers;
+
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetRequestDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetResponseDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Multi-get helpers shared by the {@code _mget} endpoints, that read many entities by id in one request and one
+ * query rather than one {@code GET} each.
+ */
+public final class MultiGet {
+
+    public static final int MAX_IDS = 500;
+
+    private MultiGet() {
+    }
+
+    /**
+     * @return the requested ids in their order, without duplicates, or null when there are none, more than
+     * {@value #MAX_IDS} or a null one
+     */
+    public static Set<Long> distinctIds(MultiGetRequestDto request) {
+        if (Objects.isNull(request) || Objects.isNull(request.getIds()) || request.getIds().isEmpty()) {
+            return null;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(request.getIds());
+
+        if (ids.size() > MAX_IDS || ids.contains(null)) {
+            return null;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Lists the items found in the order of their ids, and the ids found missing.
+     */
+    public static <T> MultiGetResponseDto<T> toResponse(Set<Long> ids, Map<Long, T> found) {
+        MultiGetResponseDto<T> response = new MultiGetResponseDto<>();
+
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>(ids.size() - found.size());
+
+        for (Long id : ids) {
+            T item = found.get(id);
+
+            if (Objects.isNull(item)) {
+                missing.add(id);
+            } else {
+                items.add(item);
+            }
+        }
+
+        response.setItems(items);
+        response.setMissing(missing);
+
+        return response;
+    }
+}
@@ -0,0 +1,186 @@
+package com.springcontext.springrestapi.controllers;
+
+import com.springcontext.springrestapi.controllers.dto.page.PageResponseDto;
+import lombok.Value;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset pagination helpers shared by the listing endpoints.
+ *
+ * A cursor is an opaque token wrapping the id of the last row of the previous page, so fetching the next
+ * page is a range scan on the primary key instead of an OFFSET scan. The pages of a listing ordered on other columns
+ * carry their values in the cursor too, so that the next page does not depend on the last row still existing.
+ */
+public final class Pagination {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String KEY_CURSOR_PREFIX = "key:";
+    private static final String KEY_SEPARATOR = ":";
+
+    private Pagination() {
+    }
+
+    public static int boundSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    public static String encodeCursor(long lastId) {
+        byte[] value = (CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    /**
+     * @return the id carried by the cursor, 0 when there is no cursor, or null when the cursor is malformed
+     */
+    public static Long decodeCursor(String cursor) {
+        if (Objects.isNull(cursor) || cursor.isEmpty()) {
+            return 0L;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            if (!value.startsWith(CURSOR_PREFIX)) {
+                return null;
+            }
+
+            return Long.parseLong(value.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the values the rows are ordered by, then the id breaking their ties, of the last row of a page.
+     */
+    public static String encodeCursor(List<String> keys, long lastId) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+        StringBuilder value = new StringBuilder(KEY_CURSOR_PREFIX);
+
+        for (String key : keys) {
+            value.append(encoder.encodeToString(key.getBytes(StandardCharsets.UTF_8))).append(KEY_SEPARATOR);
+        }
+
+        byte[] cursor = value.append(lastId).toString().getBytes(StandardCharsets.UTF_8);
+
+        return encoder.encodeToString(cursor);
+    }
+
+    /**
+     * @return the keys and id carried by a cursor of {@code keyCount} keys, empty keys and id 0 when there is no
+     * cursor, or null when the cursor is malformed
+     */
+    public static KeyCursor decodeCursor(String cursor, int keyCount) {
+        if (Objects.isNull(cursor) || cursor.isEmpty()) {
+            return new KeyCursor(Collections.nCopies(keyCount, ""), 0L);
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            if (!value.startsWith(KEY_CURSOR_PREFIX)) {
+                return null;
+            }
+
+            String[] parts = value.substring(KEY_CURSOR_PREFIX.length()).split(KEY_SEPARATOR, -1);
+
+            if (parts.length != keyCount + 1) {
+                return null;
+            }
+
+            List<String> keys = new ArrayList<>(keyCount);
+
+            for (int i = 0; i < keyCount; i++) {
+                keys.add(new String(Base64.getUrlDecoder().decode(parts[i]), StandardCharsets.UTF_8));
+            }
+
+            return new KeyCursor(keys, Long.parseLong(parts[keyCount]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds a page out of rows fetched with a limit of {@code size + 1}: the extra row only tells us
+     * whether a next page exists and is not returned.
+     */
+    public static <E, T> PageResponseDto<T> toPage(
+            List<E> rows,
+            int size,
+            Function<E, Long> idExtractor,
+            Function<E, T> converter
+    ) {
+        return Pagination.toCursorPage(rows, size, row -> Pagination.encodeCursor(idExtractor.apply(row)), converter);
+    }
+
+    /**
+     * Same as {@link #toPage}, the cursor of the next page being encoded out of the last row of this one.
+     */
+    public static <E, T> PageResponseDto<T> toCursorPage(
+            List<E> rows,
+            int size,
+            Function<E, String> cursorEncoder,
+            Function<E, T> converter
+    ) {
+        PageResponseDto<T> page = new PageResponseDto<>();
+
+        List<E> items = rows.size() > size ? rows.subList(0, size) : rows;
+
+        page.setItems(items.stream().map(converter).collect(Collectors.toList()));
+
+        if (rows.size() > size) {
+            page.setNext(cursorEncoder.apply(items.get(items.size() - 1)));
+        }
+
+        return page;
+    }
+
+    /**
+     * Builds a page out of a slice already cut to the page size, which tells whether a next page exists.
+     */
+    public static <T> PageResponseDto<T> toPage(Slice<T> slice, Function<T, Long> idExtractor) {
+        return Pagination.toCursorPage(slice, item -> Pagination.encodeCursor(idExtractor.apply(item)));
+    }
+
+    /**
+     * Same as {@link #toPage(Slice, Function)}, the cursor of the next page being encoded out of the last item.
+     */
+    public static <T> PageResponseDto<T> toCursorPage(Slice<T> slice, Function<T, String> cursorEncoder) {
+        PageResponseDto<T> page = new PageResponseDto<>();
+
+        List<T> items = slice.getContent();
+
+        page.setItems(items);
+
+        if (slice.hasNext() && !items.isEmpty()) {
+            page.setNext(cursorEncoder.apply(items.get(items.size() - 1)));
+        }
+
+        return page;
+    }
+
+    /**
+     * The position a cursor resumes after: the values the rows are ordered by, then the id.
+     */
+    @Value
+    public static class KeyCursor {
+
+        private List<String> keys;
+
+        private long id;
+    }
+}
@@ -1,45 +1,90 @@
 package com.springcontext.springrestapi.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springcontext.springrestapi.controllers.dto.address.AddressDto;
+import com.springcontext.springrestapi.controllers.dto.bulk.BulkItemResultDto;
+import com.springcontext.springrestapi.controllers.dto.bulk.BulkResponseDto;
+import com.springcontext.springrestapi.controllers.dto.location.LocationCountDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetRequestDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetResponseDto;
+import com.springcontext.springrestapi.controllers.dto.page.PageResponseDto;
 import com.springcontext.springrestapi.controllers.dto.person.PersonRequestDto;
 import com.springcontext.springrestapi.controllers.dto.person.PersonResponseDto;
 import com.springcontext.springrestapi.entities.Address;
 import com.springcontext.springrestapi.entities.Company;
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.LocationCount;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import com.springcontext.springrestapi.services.CompanyService;
 import com.springcontext.springrestapi.services.PersonService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @RestController
+@RequestMapping(produces = {
+        MediaType.APPLICATION_JSON_VALUE, MediaTypes.APPLICATION_SMILE_VALUE, MediaTypes.APPLICATION_CBOR_VALUE
+})
 @Slf4j
 public class PersonController {
 
-    private static final String API_CALL_MESSAGE = "New API call: ";
     private static final String FAILURE_MESSAGE = "Failure: ";
     private static final String SUCCESS_MESSAGE = "Success: ";
 
+    private static final int BULK_CHUNK_SIZE = 50;
+
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String EXPAND_ADDRESSES = "addresses";
+
+    private static final String ANY_ETAG = "*";
+
+    /**
+     * One entity tag of a list, weak or not. The quoted value is matched as a whole, since it may contain commas.
+     */
+    private static final Pattern ETAG_LIST_PATTERN = Pattern.compile("(W/)?(\"[^\"]*\")");
+
     private final PersonService personService;
 
     private final CompanyService companyService;
 
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public PersonController(PersonService personService, CompanyService companyService) {
+    public PersonController(PersonService personService, CompanyService companyService, ObjectMapper objectMapper) {
         this.personService = personService;
         this.companyService = companyService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(path = "/person", consumes = MediaType.APPLICATION_JSON_VALUE)
     public PersonResponseDto create(@RequestBody PersonRequestDto person) {
 
-        log.info(API_CALL_MESSAGE + "Create a person");
-
         if (Objects.isNull(person)) {
             log.error(FAILURE_MESSAGE + "The request body is null");
             return null;
@@ -47,82 +92,536 @@ public class PersonController {
 
         Person createdPerson = this.personService.create(this.convertRequestDto(person));
 
-        log.info(SUCCESS_MESSAGE + "New person created!");
+        log.debug(SUCCESS_MESSAGE + "New person created!");
 
         return PersonController.convertModel(createdPerson);
     }
 
-    @GetMapping(path = "/person/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public PersonResponseDto getPerson(@PathVariable long id) {
+    @PostMapping(
+            path = "/person/bulk",
+            consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public BulkResponseDto createAll(@RequestBody List<PersonRequestDto> people) {
+
+        if (Objects.isNull(people)) {
+            log.error(FAILURE_MESSAGE + "The request body is null");
+            return null;
+        }
+
+        Map<Long, Company> companies = new HashMap<>();
+
+        List<BulkItemResultDto> results = new ArrayList<>(people.size());
+        List<BulkItemResultDto> chunkResults = new ArrayList<>(BULK_CHUNK_SIZE);
+        List<PersonRequestDto> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+
+        for (int i = 0; i < people.size(); i++) {
+            PersonRequestDto dto = people.get(i);
+            BulkItemResultDto result = new BulkItemResultDto();
+
+            result.setIndex(i);
+            results.add(result);
+
+            if (Objects.isNull(dto) || Objects.isNull(dto.getFirstname()) || Objects.isNull(dto.getLastname())) {
+                result.setError("The firstname and the lastname are required");
+                continue;
+            }
+
+            if (Objects.nonNull(dto.getAddresses())
+                    && !dto.getAddresses().stream().allMatch(PersonController::isComplete)) {
+                result.setError("Every address needs a street, a street number, a zip code, a city and a country");
+                continue;
+            }
+
+            Company company = null;
+            Optional<Long> companyId = dto.getCompany();
+
+            if (Objects.nonNull(companyId) && companyId.isPresent()) {
+                company = companies.computeIfAbsent(companyId.get(), this.companyService::getById);
+
+                if (Objects.isNull(company)) {
+                    result.setError("No company found with id " + companyId.get());
+                    continue;
+                }
+            }
+
+            chunk.add(dto);
+            chunkResults.add(result);
+
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                this.createChunk(chunk, chunkResults, companies);
+            }
+        }
+
+        this.createChunk(chunk, chunkResults, companies);
+
+        BulkResponseDto response = new BulkResponseDto();
+
+        response.setItems(results);
+        response.setCreated((int) results.stream().filter(result -> Objects.isNull(result.getError())).count());
+        response.setFailed(results.size() - response.getCreated());
+
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "{} people created, {} failed", response.getCreated(), response.getFailed());
+        }
+
+        return response;
+    }
+
+    @GetMapping(path = "/person")
+    public PageResponseDto<PersonResponseDto> getPeople(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String zipCode,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Set<String> expand
+    ) {
+
+        Long afterId = Pagination.decodeCursor(cursor);
+
+        if (Objects.isNull(afterId)) {
+            log.error(FAILURE_MESSAGE + "Invalid cursor {}", cursor);
+            return null;
+        }
+
+        int pageSize = Pagination.boundSize(size);
+        boolean withAddresses = PersonController.expandsAddresses(expand);
+
+        Function<Person, PersonResponseDto> converter = person -> PersonController.convertModel(person, withAddresses);
+
+        Slice<PersonResponseDto> people = Objects.isNull(zipCode) && Objects.isNull(city) && Objects.isNull(country)
+                ? this.personService.getPage(afterId, pageSize, converter)
+                : this.personService.getPageByLocation(zipCode, city, country, afterId, pageSize, converter);
+
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Returning people after id {}", afterId);
+        }
+
+        return Pagination.toPage(people, PersonResponseDto::getId);
+    }
+
+    @GetMapping(path = "/person/count/country")
+    public List<LocationCountDto> countPeopleByCountry() {
+
+        List<LocationCount> counts = this.personService.countByCountry();
+
+        log.debug(SUCCESS_MESSAGE + "Returning people counts per country");
+
+        return counts.stream().map(PersonController::convertModel).collect(Collectors.toList());
+    }
+
+    @GetMapping(path = "/person/count/city")
+    public List<LocationCountDto> countPeopleByCity(@RequestParam(required = false) String country) {
+
+        List<LocationCount> counts = this.personService.countByCity(country);
+
+        log.debug(SUCCESS_MESSAGE + "Returning people counts per city in {}", country);
+
+        return counts.stream().map(PersonController::convertModel).collect(Collectors.toList());
+    }
+
+    @GetMapping(path = "/person/search")
+    public PageResponseDto<PersonResponseDto> searchPeople(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Pagination.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) Set<String> expand
+    ) {
+
+        if (Objects.isNull(q) || q.trim().isEmpty()) {
+            log.error(FAILURE_MESSAGE + "No search query");
+            return null;
+        }
+
+        Pagination.KeyCursor after = Pagination.decodeCursor(cursor, 2);
+
+        if (Objects.isNull(after)) {
+            log.error(FAILURE_MESSAGE + "Invalid cursor {}", cursor);
+            return null;
+        }
+
+        int pageSize = Pagination.boundSize(size);
+        boolean withAddresses = PersonController.expandsAddresses(expand);
+
+        Slice<PersonResponseDto> people = this.personService.search(
+                q, after.getKeys().get(0), after.getKeys().get(1), after.getId(), pageSize,
+                person -> PersonController.convertModel(person, withAddresses)
+        );
+
+        log.debug(SUCCESS_MESSAGE + "Returning people matching '{}'", q);
+
+        return Pagination.toCursorPage(people, PersonController::searchCursor);
+    }
+
+    /**
+     * The cursor resuming a search after this person, in the order of the results.
+     */
+    public static String searchCursor(PersonResponseDto person) {
+        return Pagination.encodeCursor(Arrays.asList(person.getLastname(), person.getFirstname()), person.getId());
+    }
+
+    /**
+     * Streams every person with its addresses, one JSON object per line, written from joined rows as they are read.
+     */
+    @GetMapping(path = "/person/export", produces = NDJSON_MEDIA_TYPE)
+    public StreamingResponseBody export() {
+
+        return output -> {
+            JsonGenerator generator = this.objectMapper.getFactory().createGenerator(output);
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            PersonRowJsonWriter writer = new PersonRowJsonWriter(generator, true, true);
+
+            this.personService.exportAll(writer);
+
+            long count = writer.finish();
+
+            if (log.isDebugEnabled()) {
+                log.debug(SUCCESS_MESSAGE + "Exported {} people", count);
+            }
+        };
+    }
+
+    /**
+     * Reads many people in one request, in the order of their ids. The ids matching no person are reported as
+     * missing rather than failing the request.
+     */
+    @PostMapping(path = "/person/_mget", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MultiGetResponseDto<PersonResponseDto> getPeopleById(
+            @RequestBody MultiGetRequestDto request,
+            @RequestParam(required = false) Set<String> expand
+    ) {
+
+        Set<Long> ids = MultiGet.distinctIds(request);
+
+        if (Objects.isNull(ids)) {
+            log.error(FAILURE_MESSAGE + "Between 1 and {} non null ids are expected", MultiGet.MAX_IDS);
+            return null;
+        }
+
+        boolean withAddresses = PersonController.expandsAddresses(expand);
+
+        Map<Long, PersonResponseDto> people = withAddresses
+                ? this.personService.getAllByIdWithAddresses(ids, person -> PersonController.convertModel(person, true))
+                : this.personService.getAllById(ids, person -> PersonController.convertModel(person, false));
+
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Returning {} of {} people", people.size(), ids.size());
+        }
+
+        return MultiGet.toResponse(ids, people);
+    }
+
+    @GetMapping(path = "/person/{id}")
+    public PersonResponseDto getPerson(
+            @PathVariable long id,
+            @RequestParam(required = false) Set<String> expand,
+            ServletWebRequest request
+    ) {
+
+        boolean withAddresses = PersonController.expandsAddresses(expand);
 
-        log.info(API_CALL_MESSAGE + "Get a person");
+        PersonResponseDto person = withAddresses
+                ? this.personService.getByIdWithAddresses(id, model -> PersonController.convertModel(model, true, request))
+                : this.personService.getById(id, model -> PersonController.convertModel(model, false, request));
 
-        Person person = this.personService.getById(id);
+        if (request.isNotModified()) {
+            if (log.isDebugEnabled()) {
+                log.debug(SUCCESS_MESSAGE + "Person with id {} not modified", id);
+            }
+
+            return null;
+        }
 
         if (Objects.isNull(person)) {
             log.error(FAILURE_MESSAGE + "No person found with id {}", id);
             return null;
         }
 
-        log.info(SUCCESS_MESSAGE + "Returning person with id {}", id);
-        return PersonController.convertModel(person);
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Returning person with id {}", id);
+        }
+
+        return person;
     }
 
     @PutMapping(
             path = "/person/{id}",
-            produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE
     )
-    public PersonResponseDto addAddress(@PathVariable long id, @RequestBody AddressDto address) {
-
-        log.info(API_CALL_MESSAGE + "Add a new address");
+    public PersonResponseDto addAddress(
+            @PathVariable long id,
+            @RequestBody AddressDto address,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestParam(required = false) Set<String> expand,
+            ServletWebRequest request
+    ) {
+
+        Set<Long> expectedVersions = null;
+
+        if (Objects.nonNull(ifMatch) && !ANY_ETAG.equals(ifMatch.trim())) {
+            expectedVersions = PersonController.parseETags(ifMatch);
+
+            if (expectedVersions.isEmpty()) {
+                log.error(FAILURE_MESSAGE + "If-Match {} lists no ETag of a person", ifMatch);
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+            }
+        }
 
         Address addressModel = PersonController.convertRequestDto(address);
+        boolean withAddresses = PersonController.expandsAddresses(expand);
+
+        PersonResponseDto person;
 
-        Person person = this.personService.addAddress(id, addressModel);
+        try {
+            person = this.personService.addAddress(id, addressModel, expectedVersions, model -> {
+                String etag = PersonController.etag(model, withAddresses, request);
+
+                request.getResponse().setHeader(HttpHeaders.ETAG, etag);
+
+                return PersonController.convertModel(model, withAddresses);
+            });
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.error(FAILURE_MESSAGE + "Person with id {} was modified in the meantime", id);
+            throw new ResponseStatusException(
+                    Objects.isNull(expectedVersions) ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED
+            );
+        }
 
         if (Objects.isNull(person)) {
             log.error(FAILURE_MESSAGE + "No person found with id {}", id);
             return null;
         }
 
-        log.info(SUCCESS_MESSAGE + "Added new address to person with id {}", id);
-        return this.convertModel(person);
+        if (log.isDebugEnabled()) {
+            log.debug(SUCCESS_MESSAGE + "Added new address to person with id {}", id);
+        }
+
+        return person;
     }
 
     @DeleteMapping(path = "/person/{id}")
     public void delete(@PathVariable long id) {
-        log.info(API_CALL_MESSAGE + "Delete a person");
 
         this.personService.delete(id);
     }
 
-    public Person convertRequestDto(PersonRequestDto dto) {
-        Person person = new Person();
+    /**
+     * Creates the chunk in a single transaction. If it fails, its people are created one by one, so that only the
+     * ones that cannot be saved are reported as failed. They are converted again for every attempt, as a rolled back
+     * attempt leaves ids and resolved addresses behind.
+     */
+    private void createChunk(
+            List<PersonRequestDto> chunk,
+            List<BulkItemResultDto> chunkResults,
+            Map<Long, Company> companies
+    ) {
+
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            this.createPeople(chunk, chunkResults, companies);
+        } catch (RuntimeException e) {
+            log.error(FAILURE_MESSAGE + "Could not create a chunk of {} people, retrying one by one", chunk.size(), e);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    this.createPeople(chunk.subList(i, i + 1), chunkResults.subList(i, i + 1), companies);
+                } catch (RuntimeException personException) {
+                    log.error(FAILURE_MESSAGE + "Could not create the person at index {}",
+                            chunkResults.get(i).getIndex(), personException);
+
+                    chunkResults.get(i).setError("The person could not be saved");
+                }
+            }
+        }
+
+        chunk.clear();
+        chunkResults.clear();
+    }
+
+    private void createPeople(
+            List<PersonRequestDto> dtos,
+            List<BulkItemResultDto> results,
+            Map<Long, Company> companies
+    ) {
+        List<Person> people = new ArrayList<>(dtos.size());
+
+        for (PersonRequestDto dto : dtos) {
+            Optional<Long> companyId = dto.getCompany();
+
+            Company company = Objects.nonNull(companyId) && companyId.isPresent()
+                    ? companies.get(companyId.get())
+                    : null;
+
+            people.add(PersonController.convertRequestDto(dto, company));
+        }
+
+        List<Person> createdPeople = this.personService.createAll(people);
+
+        for (int i = 0; i < createdPeople.size(); i++) {
+            results.get(i).setId(createdPeople.get(i).getId());
+        }
+    }
+
+    private static boolean isComplete(AddressDto address) {
+        return Objects.nonNull(address)
+                && Objects.nonNull(address.getStreet())
+                && Objects.nonNull(address.getStreetNumber())
+                && Objects.nonNull(address.getZipCode())
+                && Objects.nonNull(address.getCity())
+                && Objects.nonNull(address.getCountry());
+    }
 
+    public Person convertRequestDto(PersonRequestDto dto) {
         Optional<Long> company = dto.getCompany();
 
+        Company existingCompany = null;
+
+        if (Objects.nonNull(company) && company.isPresent()) {
+            existingCompany = this.companyService.getById(company.get());
+        }
+
+        return PersonController.convertRequestDto(dto, existingCompany);
+    }
+
+    public static Person convertRequestDto(PersonRequestDto dto, Company company) {
+        Person person = new Person();
+
         person.setFirstname(dto.getFirstname());
         person.setLastname(dto.getLastname());
+        person.setCompany(company);
 
-        if (company.isPresent()) {
-            Company existingCompany = this.companyService.getById(company.get());
-
-            person.setCompany(existingCompany);
+        if (Objects.nonNull(dto.getAddresses())) {
+            dto.getAddresses().stream().map(PersonController::convertRequestDto).forEach(person::addAddress);
         }
 
         return person;
     }
 
+    /**
+     * A strong ETag for the representation of the person negotiated for the request, changing with its version.
+     */
+    public static String etag(Person person, boolean withAddresses, ServletWebRequest request) {
+        return Representations.etag(PersonController.version(person, withAddresses), request);
+    }
+
+    /**
+     * A strong ETag for the representation of the rows negotiated for the request, changing with their versions.
+     */
+    public static String etag(List<PersonAddressRow> rows, boolean withAddresses, ServletWebRequest request) {
+        return Representations.etag(PersonController.version(rows, withAddresses), request);
+    }
+
+    /**
+     * The version of the person. With its addresses, the sum of their versions is appended: it can only grow while
+     * the person, thus the set of its addresses, is unchanged.
+     */
+    public static String version(Person person, boolean withAddresses) {
+        StringBuilder version = new StringBuilder().append(person.getVersion());
+
+        if (withAddresses && Objects.nonNull(person.getAddresses())) {
+            version.append('-').append(person.getAddresses().stream().mapToLong(Address::getVersion).sum());
+        }
+
+        return version.toString();
+    }
+
+    /**
+     * A digest of the ids and versions of the people of the rows, and of their addresses if included, so that it
+     * changes when one of them does or when the list gains or loses a row.
+     */
+    public static String version(List<PersonAddressRow> rows, boolean withAddresses) {
+        StringBuilder versions = new StringBuilder();
+
+        for (PersonAddressRow row : rows) {
+            versions.append(row.getPersonId()).append(':').append(row.getPersonVersion());
+
+            if (withAddresses) {
+                versions.append(':').append(row.getAddressId()).append(':').append(row.getAddressVersion());
+            }
+
+            versions.append(';');
+        }
+
+        return DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the version in a strong ETag of any representation of a person without its addresses, or null if it is
+     * not one
+     */
+    public static Long parseETag(String etag) {
+        String value = Representations.value(etag);
+
+        if (Objects.isNull(value)) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the versions in the strong ETags an {@code If-Match} header lists, in any representation of a person
+     * without its addresses. Weak ETags never match an {@code If-Match}, so they are left out, and the set is empty
+     * if no listed ETag can match.
+     */
+    public static Set<Long> parseETags(String ifMatch) {
+        Set<Long> versions = new LinkedHashSet<>();
+
+        Matcher etags = ETAG_LIST_PATTERN.matcher(ifMatch);
+
+        while (etags.find()) {
+            Long version = Objects.isNull(etags.group(1)) ? PersonController.parseETag(etags.group(2)) : null;
+
+            if (Objects.nonNull(version)) {
+                versions.add(version);
+            }
+        }
+
+        return versions;
+    }
+
+    public static boolean expandsAddresses(Set<String> expand) {
+        return Objects.nonNull(expand) && expand.contains(EXPAND_ADDRESSES);
+    }
+
     public static PersonResponseDto convertModel(Person person) {
+        return PersonController.convertModel(person, true);
+    }
+
+    /**
+     * Converts the person unless the client already has this version of its representation, the response then
+     * being a 304 Not Modified.
+     */
+    public static PersonResponseDto convertModel(Person person, boolean withAddresses, ServletWebRequest request) {
+        if (request.checkNotModified(PersonController.etag(person, withAddresses, request))) {
+            return null;
+        }
+
+        return PersonController.convertModel(person, withAddresses);
+    }
+
+    /**
+     * Addresses are lazy, so they are only read when the caller asked for them.
+     */
+    public static PersonResponseDto convertModel(Person person, boolean withAddresses) {
         PersonResponseDto dto = new PersonResponseDto();
 
         Company company = person.getCompany();
 
+        dto.setId(person.getId());
         dto.setFirstname(person.getFirstname());
         dto.setLastname(person.getLastname());
 
-        if(Objects.nonNull(person.getAddresses())) {
+        if(withAddresses && Objects.nonNull(person.getAddresses())) {
             dto.setAddresses(
                     person.getAddresses().stream().map(PersonController::convertModel).collect(Collectors.toList())
             );
@@ -135,6 +634,52 @@ public class PersonController {
         return dto;
     }
 
+    /**
+     * Groups person/address rows, ordered by person, into one response per person.
+     */
+    public static List<PersonResponseDto> convertRows(List<PersonAddressRow> rows) {
+        return PersonController.convertRows(rows, true);
+    }
+
+    /**
+     * Groups person rows, ordered by person, into one response per person, leaving the
+     * addresses out unless the rows were fetched with them.
+     */
+    public static List<PersonResponseDto> convertRows(List<PersonAddressRow> rows, boolean withAddresses) {
+        Map<Long, PersonResponseDto> people = new LinkedHashMap<>();
+
+        for (PersonAddressRow row : rows) {
+            PersonResponseDto dto = people.computeIfAbsent(row.getPersonId(), personId -> {
+                PersonResponseDto person = new PersonResponseDto();
+
+                person.setId(personId);
+                person.setFirstname(row.getFirstname());
+                person.setLastname(row.getLastname());
+                person.setCompany(row.getCompanyId());
+
+                if (withAddresses) {
+                    person.setAddresses(new ArrayList<>());
+                }
+
+                return person;
+            });
+
+            if (withAddresses && Objects.nonNull(row.getAddressId())) {
+                AddressDto address = new AddressDto();
+
+                address.setCity(row.getCity());
+                address.setCountry(row.getCountry());
+                address.setStreet(row.getStreet());
+                address.setStreetNumber(row.getStreetNumber());
+                address.setZipCode(row.getZipCode());
+
+                dto.getAddresses().add(address);
+            }
+        }
+
+        return new ArrayList<>(people.values());
+    }
+
     public static AddressDto convertModel(Address address) {
         AddressDto dto = new AddressDto();
 
@@ -147,6 +692,16 @@ public class PersonController {
         return dto;
     }
 
+    public static LocationCountDto convertModel(LocationCount count) {
+        LocationCountDto dto = new LocationCountDto();
+
+        dto.setCountry(count.getCountry());
+        dto.setCity(count.getCity());
+        dto.setPeople(count.getPeople());
+
+        return dto;
+    }
+
     public static Address convertRequestDto(AddressDto dto) {
         Address address = new Address();
 
@@ -0,0 +1,135 @@
+package com.springcontext.springrestapi.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Writes person rows, ordered by person, straight to a {@link JsonGenerator} as the same JSON array that
+ * {@link PersonController#convertRows(java.util.List, boolean)} would produce, without building any response object.
+ * Line delimited, it writes one JSON object per person and per line instead.
+ */
+public class PersonRowJsonWriter implements Consumer<PersonAddressRow> {
+
+    private final JsonGenerator generator;
+
+    private final boolean withAddresses;
+
+    private final boolean lineDelimited;
+
+    private Long personId;
+
+    private Long companyId;
+
+    private long people;
+
+    public PersonRowJsonWriter(JsonGenerator generator, boolean withAddresses) throws IOException {
+        this(generator, withAddresses, false);
+    }
+
+    public PersonRowJsonWriter(JsonGenerator generator, boolean withAddresses, boolean lineDelimited)
+            throws IOException {
+        this.generator = generator;
+        this.withAddresses = withAddresses;
+        this.lineDelimited = lineDelimited;
+
+        if (lineDelimited) {
+            this.generator.setRootValueSeparator(null);
+        } else {
+            this.generator.writeStartArray();
+        }
+    }
+
+    @Override
+    public void accept(PersonAddressRow row) {
+        try {
+            if (!Objects.equals(row.getPersonId(), this.personId)) {
+                this.endPerson();
+                this.startPerson(row);
+            }
+
+            if (this.withAddresses && Objects.nonNull(row.getAddressId())) {
+                this.writeAddress(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the array, if any, and returns the number of people written.
+     */
+    public long finish() throws IOException {
+        this.endPerson();
+
+        if (!this.lineDelimited) {
+            this.generator.writeEndArray();
+        }
+
+        this.generator.flush();
+
+        return this.people;
+    }
+
+    private void startPerson(PersonAddressRow row) throws IOException {
+        this.personId = row.getPersonId();
+        this.companyId = row.getCompanyId();
+        this.people++;
+
+        this.generator.writeStartObject();
+        this.generator.writeNumberField("id", this.personId);
+        this.generator.writeStringField("firstname", row.getFirstname());
+        this.generator.writeStringField("lastname", row.getLastname());
+
+        if (this.withAddresses) {
+            this.generator.writeArrayFieldStart("addresses");
+        } else {
+            this.generator.writeNullField("addresses");
+        }
+    }
+
+    private void endPerson() throws IOException {
+        if (Objects.isNull(this.personId)) {
+            return;
+        }
+
+        if (this.withAddresses) {
+            this.generator.writeEndArray();
+        }
+
+        this.generator.writeFieldName("company");
+
+        if (Objects.nonNull(this.companyId)) {
+            this.generator.writeNumber(this.companyId);
+        } else {
+            this.generator.writeNull();
+        }
+
+        this.generator.writeEndObject();
+
+        if (this.lineDelimited) {
+            this.generator.writeRaw('\n');
+        }
+    }
+
+    private void writeAddress(PersonAddressRow row) throws IOException {
+        this.generator.writeStartObject();
+        this.generator.writeStringField("street", row.getStreet());
+        this.generator.writeFieldName("streetNumber");
+
+        if (Objects.nonNull(row.getStreetNumber())) {
+            this.generator.writeNumber(row.getStreetNumber());
+        } else {
+            this.generator.writeNull();
+        }
+
+        this.generator.writeStringField("zipCode", row.getZipCode());
+        this.generator.writeStringField("city", row.getCity());
+        this.generator.writeStringField("country", row.getCountry());
+        this.generator.writeEndObject();
+    }
+}
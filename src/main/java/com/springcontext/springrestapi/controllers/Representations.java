@@ -0,0 +1,121 @@
+package com.springcontext.springrestapi.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ETag helpers telling apart the representations of a resource. The same version of a person encoded as JSON, Smile
+ * or CBOR, gzipped or not, is as many different bodies: each gets its own strong ETag, and the responses vary on
+ * {@code Accept}, so that a shared cache never serves one of them, or a 304 for it, to a client asking for another.
+ *
+ * A client accepting gzip gets the gzip tag whether or not Tomcat compresses that response: its tag then differs
+ * from the one of an identity client for the same body, which costs a cache hit, never a wrong body.
+ */
+public final class Representations {
+
+    private static final List<MediaType> PRODUCIBLE_MEDIA_TYPES = Arrays.asList(
+            MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_SMILE, MediaTypes.APPLICATION_CBOR
+    );
+
+    private static final String SMILE_SUFFIX = "+smile";
+    private static final String CBOR_SUFFIX = "+cbor";
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private static final String GZIP = "gzip";
+
+    private Representations() {
+    }
+
+    /**
+     * Quotes the value into the strong ETag of the representation negotiated for the request, JSON keeping the bare
+     * value, and marks the response as varying on {@code Accept}.
+     */
+    public static String etag(String value, ServletWebRequest request) {
+        HttpServletResponse response = request.getResponse();
+
+        if (Objects.nonNull(response)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+
+        StringBuilder etag = new StringBuilder("\"").append(value);
+
+        MediaType mediaType = Representations.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+
+        if (MediaTypes.APPLICATION_SMILE.equals(mediaType)) {
+            etag.append(SMILE_SUFFIX);
+        } else if (MediaTypes.APPLICATION_CBOR.equals(mediaType)) {
+            etag.append(CBOR_SUFFIX);
+        }
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+
+        if (Objects.nonNull(acceptEncoding) && acceptEncoding.contains(GZIP)) {
+            etag.append(GZIP_SUFFIX);
+        }
+
+        return etag.append('"').toString();
+    }
+
+    /**
+     * @return the value of an ETag built by {@link #etag(String, ServletWebRequest)}, whatever its representation,
+     * or null if it is not a strong ETag
+     */
+    public static String value(String etag) {
+        String value = etag.trim();
+
+        if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return null;
+        }
+
+        value = value.substring(1, value.length() - 1);
+
+        for (String suffix : new String[]{GZIP_SUFFIX, SMILE_SUFFIX, CBOR_SUFFIX}) {
+            if (value.endsWith(suffix)) {
+                value = value.substring(0, value.length() - suffix.length());
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Picks the media type Spring MVC writes for this {@code Accept} header: the most specific and preferred accepted
+     * type that is producible, JSON when any is accepted or the header is missing or malformed.
+     */
+    static MediaType negotiate(String accept) {
+        if (Objects.isNull(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> acceptedMediaTypes;
+
+        try {
+            acceptedMediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            if (acceptedMediaType.getQualityValue() == 0) {
+                continue;
+            }
+
+            for (MediaType producibleMediaType : PRODUCIBLE_MEDIA_TYPES) {
+                if (acceptedMediaType.isCompatibleWith(producibleMediaType)) {
+                    return producibleMediaType;
+                }
+            }
+        }
+
+        return MediaType.APPLICATION_JSON;
+    }
+}
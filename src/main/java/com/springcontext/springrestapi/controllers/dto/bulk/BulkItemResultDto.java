@@ -0,0 +1,13 @@
+package com.springcontext.springrestapi.controllers.dto.bulk;
+
+import lombok.Data;
+
+@Data
+public class BulkItemResultDto {
+
+    private int index;
+
+    private Long id;
+
+    private String error;
+}
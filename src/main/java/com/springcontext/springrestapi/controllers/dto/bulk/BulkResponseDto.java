@@ -0,0 +1,15 @@
+package com.springcontext.springrestapi.controllers.dto.bulk;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkResponseDto {
+
+    private int created;
+
+    private int failed;
+
+    private List<BulkItemResultDto> items;
+}
@@ -0,0 +1,15 @@
+package com.springcontext.springrestapi.controllers.dto.cache;
+
+import lombok.Data;
+
+@Data
+public class CacheRegionStatisticsDto {
+
+    private String region;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+}
@@ -0,0 +1,21 @@
+package com.springcontext.springrestapi.controllers.dto.cache;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CacheStatisticsDto {
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    private long queryCacheHitCount;
+
+    private long queryCacheMissCount;
+
+    private List<CacheRegionStatisticsDto> regions;
+}
@@ -8,6 +8,8 @@ import java.util.List;
 @Data
 public class CompanyResponseDto {
 
+    private Long id;
+
     private String name;
 
     private List<PersonResponseDto> employees;
@@ -0,0 +1,13 @@
+package com.springcontext.springrestapi.controllers.dto.location;
+
+import lombok.Data;
+
+@Data
+public class LocationCountDto {
+
+    private String country;
+
+    private String city;
+
+    private Long people;
+}
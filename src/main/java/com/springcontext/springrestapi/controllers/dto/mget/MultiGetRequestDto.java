@@ -0,0 +1,11 @@
+package com.springcontext.springrestapi.controllers.dto.mget;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MultiGetRequestDto {
+
+    private List<Long> ids;
+}
@@ -0,0 +1,13 @@
+package com.springcontext.springrestapi.controllers.dto.mget;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MultiGetResponseDto<T> {
+
+    private List<T> items;
+
+    private List<Long> missing;
+}
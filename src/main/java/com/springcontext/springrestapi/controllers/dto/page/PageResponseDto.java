@@ -0,0 +1,13 @@
+package com.springcontext.springrestapi.controllers.dto.page;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PageResponseDto<T> {
+
+    private List<T> items;
+
+    private String next;
+}
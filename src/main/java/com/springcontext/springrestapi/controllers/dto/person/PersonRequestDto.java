@@ -1,7 +1,9 @@
 package com.springcontext.springrestapi.controllers.dto.person;
 
+import com.springcontext.springrestapi.controllers.dto.address.AddressDto;
 import lombok.Data;
 
+import java.util.List;
 import java.util.Optional;
 
 @Data
@@ -12,4 +14,6 @@ public class PersonRequestDto {
     private String lastname;
 
     private Optional<Long> company;
-}
\ No newline at end of file
+
+    private List<AddressDto> addresses;
+}
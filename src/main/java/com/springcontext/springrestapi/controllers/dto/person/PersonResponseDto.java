@@ -8,6 +8,8 @@ import java.util.List;
 @Data
 public class PersonResponseDto {
 
+    private Long id;
+
     private String firstname;
 
     private String lastname;
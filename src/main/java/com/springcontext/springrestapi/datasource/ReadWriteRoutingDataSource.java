@@ -0,0 +1,24 @@
+package com.springcontext.springrestapi.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes the connections of read-only transactions to the replica and every other connection to the primary.
+ *
+ * The transaction is only known to be read-only once it has begun, after Hibernate asked for its connection: this
+ * data source must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * defers the routing to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
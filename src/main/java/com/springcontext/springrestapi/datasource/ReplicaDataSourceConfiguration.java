@@ -0,0 +1,70 @@
+package com.springcontext.springrestapi.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enabled by {@code datasource.replica.jdbc-url}: read-only transactions are then served by a replica pool,
+ * configured like a Hikari pool under {@code datasource.replica}, while writes and non-transactional work, the
+ * Flyway migrations included, stay on the primary configured under {@code spring.datasource}.
+ *
+ * The two pools are not beans of their own, Spring Boot would then look for a unique data source while the routing
+ * one is being created: they are bound and instrumented here instead.
+ *
+ * A read following a write may not see it until the replica has caught up.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.jdbc-url")
+public class ReplicaDataSourceConfiguration {
+
+    private static final String PRIMARY_POOL = "spring.datasource.hikari";
+    private static final String REPLICA_POOL = "datasource.replica";
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+
+        primary.setPoolName("primary");
+        binder.bind(PRIMARY_POOL, Bindable.ofInstance(primary));
+
+        HikariDataSource replica = new HikariDataSource();
+
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        binder.bind(REPLICA_POOL, Bindable.ofInstance(replica));
+
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        primary.setMetricsTrackerFactory(metricsTrackerFactory);
+        replica.setMetricsTrackerFactory(metricsTrackerFactory);
+
+        Map<Object, Object> dataSources = new HashMap<>();
+
+        dataSources.put(ReadWriteRoutingDataSource.Route.PRIMARY, primary);
+        dataSources.put(ReadWriteRoutingDataSource.Route.REPLICA, replica);
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+
+        routingDataSource.setTargetDataSources(dataSources);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -1,22 +1,63 @@
 package com.springcontext.springrestapi.entities;
 
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
-@Table(name = "addresses")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(
+        name = "addresses",
+        uniqueConstraints = @UniqueConstraint(
+                name = Address.LOCATION_CONSTRAINT,
+                columnNames = "locationHash"
+        ),
+        indexes = {
+                @Index(name = Address.ZIP_CODE_INDEX, columnList = "zipCode"),
+                @Index(name = Address.CITY_INDEX, columnList = "city"),
+                @Index(name = Address.COUNTRY_INDEX, columnList = "country, city")
+        }
+)
+@Getter
+@Setter
+@ToString(of = {"id", "street", "streetNumber", "zipCode", "city", "country"})
 public class Address {
 
+    public static final String LOCATION_CONSTRAINT = "uk_addresses_location";
+
+    private static final String LOCATION_HASH_ALGORITHM = "SHA-256";
+
+    public static final String ZIP_CODE_INDEX = "idx_addresses_zip_code";
+    public static final String CITY_INDEX = "idx_addresses_city";
+
+    /**
+     * Also serves the people counts per country and city, which group in the order of this index.
+     */
+    public static final String COUNTRY_INDEX = "idx_addresses_country";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addresses_seq")
+    @SequenceGenerator(name = "addresses_seq", sequenceName = "addresses_seq", allocationSize = 50)
     @Column(nullable = false, updatable = false, unique = true)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @Column(nullable = false, columnDefinition = "VARCHAR(255) DEFAULT ''")
     private String street;
 
@@ -32,14 +73,93 @@ public class Address {
     @Column(nullable = false, columnDefinition = "VARCHAR(255) DEFAULT ''")
     private String country;
 
-    @ManyToMany(mappedBy = "addresses", fetch = FetchType.EAGER)
-    private List<Person> people;
+    /**
+     * Hash of the natural key, see {@link #hashLocation}. The unique index is on this column rather than on the five
+     * it hashes, whose key would exceed the 3072 bytes InnoDB allows under utf8mb4.
+     */
+    @Column(nullable = false, columnDefinition = "CHAR(64)")
+    private String locationHash;
+
+    @ManyToMany(mappedBy = "addresses", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Person> people;
 
     public void addPerson(Person person) {
         if (Objects.isNull(this.people)) {
-            this.people = new ArrayList<>();
+            this.people = new LinkedHashSet<>();
         }
 
         this.people.add(person);
     }
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    public void updateLocationHash() {
+        this.locationHash = Address.hashLocation(
+                this.getStreet(),
+                this.getStreetNumber(),
+                this.getZipCode(),
+                this.getCity(),
+                this.getCountry()
+        );
+    }
+
+    /**
+     * Hashes a natural key with SHA-256, ignoring case and surrounding whitespace as MySQL's default collations do
+     * for the most part. Each part is prefixed with its length, so that no two keys hash the same string.
+     */
+    public static String hashLocation(
+            String street,
+            Integer streetNumber,
+            String zipCode,
+            String city,
+            String country
+    ) {
+        StringBuilder location = new StringBuilder();
+
+        for (Object part : new Object[]{street, streetNumber, zipCode, city, country}) {
+            String value = Objects.toString(part, "").trim().toLowerCase(Locale.ROOT);
+
+            location.append(value.length()).append(':').append(value);
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance(LOCATION_HASH_ALGORITHM)
+                    .digest(location.toString().getBytes(StandardCharsets.UTF_8));
+
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Addresses are compared by the hash of their natural key rather than their id, the same
+     * definition of a location as the unique locationHash index: "Paris" and "paris " are the
+     * same address whether or not it has been persisted yet. Neither method touches the lazy
+     * people collection.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof Address)) {
+            return false;
+        }
+
+        return this.location().equals(((Address) o).location());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.location().hashCode();
+    }
+
+    private String location() {
+        return Address.hashLocation(
+                this.getStreet(), this.getStreetNumber(), this.getZipCode(), this.getCity(), this.getCountry()
+        );
+    }
+}
@@ -1,6 +1,10 @@
 package com.springcontext.springrestapi.entities;
 
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -8,19 +12,31 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "companies")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "companies", indexes = @Index(name = Company.NAME_INDEX, columnList = "name"))
+@Getter
+@Setter
+@ToString(of = {"id", "name"})
 public class Company {
 
+    public static final String NAME_INDEX = "idx_companies_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companies_seq")
+    @SequenceGenerator(name = "companies_seq", sequenceName = "companies_seq", allocationSize = 50)
     @Column(nullable = false, updatable = false, unique = true)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @Column(nullable = false, columnDefinition = "VARCHAR(255) DEFAULT ''")
     private String name;
 
-    @OneToMany
+    @OneToMany(mappedBy = "company", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Person> employees;
 
     public void addEmployee(Person employee) {
@@ -30,4 +46,27 @@ public class Company {
 
         this.employees.add(employee);
     }
-}
\ No newline at end of file
+
+    /**
+     * Id based, like {@link Person#equals(Object)}, so the employees are never loaded to compare companies.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof Company)) {
+            return false;
+        }
+
+        Company other = (Company) o;
+
+        return Objects.nonNull(this.getId()) && Objects.equals(this.getId(), other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Company.class.hashCode();
+    }
+}
@@ -1,30 +1,73 @@
 package com.springcontext.springrestapi.entities;
 
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
-@Table(name = "people")
-@Data
+@NamedEntityGraph(
+        name = Person.WITH_ADDRESSES,
+        attributeNodes = {@NamedAttributeNode("addresses"), @NamedAttributeNode("company")}
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(
+        name = "people",
+        indexes = {
+                @Index(name = Person.NAME_INDEX, columnList = "lastname, firstname"),
+                @Index(name = Person.FIRSTNAME_INDEX, columnList = "firstname")
+        }
+)
+@Getter
+@Setter
+@ToString(of = {"id", "firstname", "lastname"})
 public class Person {
 
+    public static final String WITH_ADDRESSES = "Person.addresses";
+
+    public static final String NAME_INDEX = "idx_people_name";
+    public static final String FIRSTNAME_INDEX = "idx_people_firstname";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "people_seq")
+    @SequenceGenerator(name = "people_seq", sequenceName = "people_seq", allocationSize = 50)
     @Column(nullable = false, updatable = false, unique = true)
     private Long id;
 
+    /**
+     * Incremented by every update of the person, changes to its addresses and company included.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @Column(nullable = false, columnDefinition = "VARCHAR(50) DEFAULT ''")
     private String firstname;
 
     @Column(nullable = false, columnDefinition = "VARCHAR(50) DEFAULT ''")
     private String lastname;
 
-    @ManyToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-    private List<Address> addresses;
+    /**
+     * A set rather than a bag: Hibernate then adds or removes single join-table rows instead of
+     * deleting and reinserting every address of the person on each change. Addresses are shared between
+     * people, so deleting a person must not cascade to them.
+     *
+     * The addresses of up to a full page of people are loaded together, a listing then issues one more statement
+     * rather than one per person.
+     */
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Address> addresses;
 
     @ManyToOne()
     @JoinColumn(nullable = true)
@@ -32,9 +75,34 @@ public class Person {
 
     public void addAddress(Address address) {
         if(Objects.isNull(this.addresses)) {
-            this.addresses = new ArrayList<>();
+            this.addresses = new LinkedHashSet<>();
         }
 
         this.addresses.add(address);
     }
-}
\ No newline at end of file
+
+    /**
+     * Two people are equal once they share a database id; a transient person is only equal to itself.
+     * The hash code does not depend on the id so it stays stable when the id is assigned on persist,
+     * and neither method touches the lazy associations.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof Person)) {
+            return false;
+        }
+
+        Person other = (Person) o;
+
+        return Objects.nonNull(this.getId()) && Objects.equals(this.getId(), other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Person.class.hashCode();
+    }
+}
@@ -0,0 +1,70 @@
+package com.springcontext.springrestapi.execution;
+
+import com.springcontext.springrestapi.controllers.CompanyController;
+import com.springcontext.springrestapi.controllers.PersonController;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Opt-in execution mode, enabled with {@code execution.mode: async}, serving the person and company endpoints on
+ * {@code execution.threads} worker threads with at most {@code execution.queue-capacity} more requests waiting
+ * for one. The container threads are released while the workers wait on the database, and an overload is
+ * answered with 503 instead of piling up in the container's accept queue.
+ *
+ * Blocking JDBC still caps the throughput at the connection pool: the mode bounds the work in flight, it does not
+ * make a request cheaper.
+ */
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "async")
+public class AsyncExecutionConfiguration {
+
+    @Bean
+    public ThreadPoolTaskExecutor requestExecutor(@Value("${execution.threads:16}") int threads) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("request-");
+
+        return executor;
+    }
+
+    @Bean
+    public WebMvcRegistrations offloadingRegistrations(
+            ThreadPoolTaskExecutor requestExecutor,
+            @Value("${execution.threads:16}") int threads,
+            @Value("${execution.queue-capacity:512}") int queueCapacity
+    ) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return null;
+            }
+
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new OffloadingRequestMappingHandlerAdapter(
+                        requestExecutor,
+                        threads + queueCapacity,
+                        new HashSet<>(Arrays.asList(PersonController.class, CompanyController.class))
+                );
+            }
+
+            @Override
+            public ExceptionHandlerExceptionResolver getExceptionHandlerExceptionResolver() {
+                return null;
+            }
+        };
+    }
+}
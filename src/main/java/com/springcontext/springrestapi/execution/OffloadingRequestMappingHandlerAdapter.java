@@ -0,0 +1,107 @@
+package com.springcontext.springrestapi.execution;
+
+import com.springcontext.springrestapi.metrics.SqlStatementCounter;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the handler methods of the given controllers on a bounded executor instead of the servlet container thread,
+ * as if they returned a {@link WebAsyncTask}. The arguments are resolved on the container thread, the method then
+ * runs on the worker thread, its service transactions included, and the rendering of its result goes through
+ * Spring MVC's callable processing.
+ *
+ * At most {@code maxRequests} requests are in flight: the next ones are refused with 503 before going async
+ * rather than queued without bound. A request holds its slot until its method returns, or until the request completes
+ * if the method never started, e.g. timed out while queued. Methods already returning a {@link StreamingResponseBody}
+ * stay as they are.
+ */
+public class OffloadingRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final AsyncTaskExecutor executor;
+
+    private final Semaphore inFlightRequests;
+
+    private final Set<Class<?>> controllers;
+
+    public OffloadingRequestMappingHandlerAdapter(AsyncTaskExecutor executor, int maxRequests, Set<Class<?>> controllers) {
+        this.executor = executor;
+        this.inFlightRequests = new Semaphore(maxRequests);
+        this.controllers = controllers;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+
+        if (!this.controllers.contains(handlerMethod.getBeanType())
+                || StreamingResponseBody.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType())) {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+
+        return new OffloadedHandlerMethod(handlerMethod);
+    }
+
+    /**
+     * The permit of a request is released once, by its task if it started, by the completion of the request if not.
+     */
+    private enum TaskState {
+        QUEUED, RUNNING, ABANDONED
+    }
+
+    private class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        private OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) {
+
+            if (!inFlightRequests.tryAcquire()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests in flight");
+            }
+
+            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+
+            SqlStatementCounter.Statements statements = SqlStatementCounter.track(attributes.getRequest());
+
+            AtomicReference<TaskState> state = new AtomicReference<>(TaskState.QUEUED);
+
+            WebAsyncTask<Object> task = new WebAsyncTask<>(null, executor, () -> {
+                if (!state.compareAndSet(TaskState.QUEUED, TaskState.RUNNING)) {
+                    return null;
+                }
+
+                SqlStatementCounter.track(statements);
+
+                try {
+                    return super.doInvoke(args);
+                } finally {
+                    SqlStatementCounter.untrack();
+                    inFlightRequests.release();
+                }
+            });
+
+            // a request completing before its task ran, on a timeout or an error, would otherwise keep its permit:
+            // the task was cancelled in the queue, or will be skipped when dequeued
+            task.onCompletion(() -> {
+                if (state.compareAndSet(TaskState.QUEUED, TaskState.ABANDONED)) {
+                    inFlightRequests.release();
+                }
+            });
+
+            return task;
+        }
+    }
+}
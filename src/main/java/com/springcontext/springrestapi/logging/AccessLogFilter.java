@@ -0,0 +1,75 @@
+package com.springcontext.springrestapi.logging;
+
+import com.springcontext.springrestapi.metrics.SqlStatementCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Writes one line per request to the {@value #LOGGER_NAME} logger once the response is produced, replacing the
+ * per-call info logs the controllers and services used to emit. The line is made of key=value pairs so that it
+ * can be parsed without a grammar:
+ *
+ * {@code method=GET uri=/person/42 status=200 duration_ms=3 sql_statements=1}
+ *
+ * The query string is left out, it may carry search terms. An asynchronous request is logged once, when its last
+ * dispatch completes, with the duration since its first dispatch started.
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    public static final String LOGGER_NAME = "access";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private static final String START_ATTRIBUTE = AccessLogFilter.class.getName() + ".START";
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!ACCESS_LOG.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!this.isAsyncDispatch(request)) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+
+        // tracking is idempotent, so SqlStatementMetricsFilter and this filter can run in either order
+        SqlStatementCounter.Statements statements = SqlStatementCounter.track(request);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.untrack();
+
+            if (!this.isAsyncStarted(request)) {
+                ACCESS_LOG.info(
+                        "method={} uri={} status={} duration_ms={} sql_statements={}",
+                        request.getMethod(),
+                        request.getRequestURI(),
+                        response.getStatus(),
+                        (System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE)) / 1_000_000,
+                        statements.count()
+                );
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
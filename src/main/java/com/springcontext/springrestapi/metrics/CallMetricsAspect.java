@@ -0,0 +1,67 @@
+package com.springcontext.springrestapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public service method and every repository call, tagged by class, method and the exception thrown
+ * if any. The timer counts double as call counters.
+ */
+@Aspect
+@Component
+public class CallMetricsAspect {
+
+    public static final String SERVICE_METRIC_NAME = "app.service.calls";
+    public static final String REPOSITORY_METRIC_NAME = "app.repository.calls";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public CallMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.springcontext.springrestapi.services..*) && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return this.time(SERVICE_METRIC_NAME, joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    /**
+     * The target of a repository call is Spring Data's generic implementation, so the class tag is taken from the
+     * repository interface the proxy implements instead.
+     */
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+
+        return this.time(REPOSITORY_METRIC_NAME, interfaces[0].getSimpleName(), joinPoint);
+    }
+
+    private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+
+        String exception = NO_EXCEPTION;
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(this.meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.springcontext.springrestapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import javax.servlet.ServletRequest;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so that the statements issued while serving
+ * one request can be attributed to it. Identical statements are also counted separately: one statement repeated
+ * once per row is the signature of an N+1 query.
+ *
+ * A request may run on several threads, its initial dispatch, a worker thread of the asynchronous execution mode
+ * and its async dispatch: the counts are kept in a request attribute, that each of these threads tracks in turn.
+ *
+ * Hibernate instantiates this class itself through {@code hibernate.session_factory.statement_inspector}, hence
+ * the static thread-local state.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final String REQUEST_ATTRIBUTE = SqlStatementCounter.class.getName() + ".STATEMENTS";
+
+    private static final ThreadLocal<Statements> STATEMENTS = ThreadLocal.withInitial(Statements::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+
+        return sql;
+    }
+
+    /**
+     * Counts the statements of the current thread into those of the request, carrying on from its previous
+     * dispatches, and returns them.
+     */
+    public static Statements track(ServletRequest request) {
+        Statements statements = (Statements) request.getAttribute(REQUEST_ATTRIBUTE);
+
+        if (Objects.isNull(statements)) {
+            statements = new Statements();
+            request.setAttribute(REQUEST_ATTRIBUTE, statements);
+        }
+
+        STATEMENTS.set(statements);
+
+        return statements;
+    }
+
+    /**
+     * Counts the statements of the current thread into the given ones, typically those of a request served by
+     * another thread.
+     */
+    public static void track(Statements statements) {
+        STATEMENTS.set(statements);
+    }
+
+    /**
+     * Stops counting the statements of the current thread into those it tracked.
+     */
+    public static void untrack() {
+        STATEMENTS.remove();
+    }
+
+    /**
+     * Restarts the counts of the current thread from zero.
+     */
+    public static void reset() {
+        STATEMENTS.set(new Statements());
+    }
+
+    public static long count() {
+        return STATEMENTS.get().count();
+    }
+
+    public static Map.Entry<String, Long> mostRepeated() {
+        return STATEMENTS.get().mostRepeated();
+    }
+
+    /**
+     * The statements issued for one request. Its threads never run at the same time, the hand-over between them
+     * publishes the counts.
+     */
+    public static final class Statements {
+
+        private final Map<String, Long> counts = new HashMap<>();
+
+        private long count;
+
+        private void add(String sql) {
+            this.count++;
+            this.counts.merge(sql, 1L, Long::sum);
+        }
+
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Returns the statement issued the most times with its count, or null if there was none.
+         */
+        public Map.Entry<String, Long> mostRepeated() {
+            Map.Entry<String, Long> mostRepeated = null;
+
+            for (Map.Entry<String, Long> statement : this.counts.entrySet()) {
+                if (Objects.isNull(mostRepeated) || statement.getValue() > mostRepeated.getValue()) {
+                    mostRepeated = statement;
+                }
+            }
+
+            return Objects.isNull(mostRepeated) ? null : new AbstractMap.SimpleImmutableEntry<>(mostRepeated);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.springcontext.springrestapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Records how many SQL statements each request issued, tagged like {@code http.server.requests}, so that a query
+ * storm shows up next to the latency of the endpoint causing it.
+ *
+ * Requests issuing more statements than {@code sql.statements.budget} are logged with their most repeated
+ * statement and counted in {@value #BUDGET_EXCEEDED_METRIC_NAME}.
+ *
+ * An asynchronous request is recorded once, when its last dispatch completes. Statements issued while a
+ * streaming response writes its body run on a thread that is not tracked and are not counted.
+ */
+@Component
+@Slf4j
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "http.server.requests.sql.statements";
+    public static final String BUDGET_EXCEEDED_METRIC_NAME = "http.server.requests.sql.budget.exceeded";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    private final long budget;
+
+    @Autowired
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry, @Value("${sql.statements.budget:20}") long budget) {
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        SqlStatementCounter.Statements statements = SqlStatementCounter.track(request);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.untrack();
+
+            if (!this.isAsyncStarted(request)) {
+                this.record(request, statements);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Statements statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        String uri = Objects.nonNull(pattern) ? pattern.toString() : UNKNOWN_URI;
+        long count = statements.count();
+
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(this.meterRegistry)
+                .record(count);
+
+        if (count > this.budget) {
+            this.reportOverBudget(request.getMethod(), uri, statements);
+        }
+    }
+
+    private void reportOverBudget(String method, String uri, SqlStatementCounter.Statements statements) {
+        Map.Entry<String, Long> mostRepeated = statements.mostRepeated();
+
+        log.warn(
+                "{} {} issued {} SQL statements, over the budget of {}; most repeated ({} times): {}",
+                method,
+                uri,
+                statements.count(),
+                this.budget,
+                mostRepeated.getValue(),
+                mostRepeated.getKey()
+        );
+
+        this.meterRegistry.counter(BUDGET_EXCEEDED_METRIC_NAME, "method", method, "uri", uri).increment();
+    }
+}
@@ -0,0 +1,44 @@
+package com.springcontext.springrestapi.migrations;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Schema lookups shared by the Java migrations. Hibernate still creates the schema of a fresh database, so the
+ * migrations check what exists before changing it.
+ */
+final class Migrations {
+
+    private Migrations() {
+    }
+
+    static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, names[0], names[1])) {
+                if (columns.next()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.springcontext.springrestapi.migrations;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Drops the companies_employees join table once Company.employees became the inverse side of Person.company.
+ *
+ * Links that only existed in the join table are first copied to people.company_id. The schema itself is still
+ * managed by Hibernate, so on a fresh database the table never exists and this migration does nothing.
+ */
+@Slf4j
+public class V2__Drop_companies_employees implements JdbcMigration {
+
+    private static final String JOIN_TABLE = "companies_employees";
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+
+        if (!Migrations.tableExists(connection, JOIN_TABLE)) {
+            log.info("No {} table to drop", JOIN_TABLE);
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            int movedLinks = statement.executeUpdate(
+                    "UPDATE people SET company_id = ("
+                            + "SELECT MIN(ce.company_id) FROM companies_employees ce WHERE ce.employees_id = people.id"
+                            + ") WHERE company_id IS NULL AND id IN (SELECT employees_id FROM companies_employees)"
+            );
+
+            log.info("Moved {} employee links from {} to people.company_id", movedLinks, JOIN_TABLE);
+
+            statement.executeUpdate("DROP TABLE companies_employees");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.springcontext.springrestapi.migrations;
+
+import com.springcontext.springrestapi.entities.Address;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hashes the location of every address, merges the addresses sharing a location hash into the oldest copy, then adds
+ * the unique index on the hash that keeps them deduplicated.
+ *
+ * People linked to a duplicate are relinked to the kept address, unless they already were. The duplicates are
+ * grouped by the database on the same column as the index, so the index is created on exactly what was merged. On a
+ * fresh database the addresses table does not exist yet and Hibernate creates it with the index, so this migration
+ * does nothing.
+ */
+@Slf4j
+public class V3__Deduplicate_addresses implements JdbcMigration {
+
+    private static final String ADDRESSES_TABLE = "addresses";
+    private static final String LOCATION_HASH_COLUMN = "location_hash";
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+
+        if (!Migrations.tableExists(connection, ADDRESSES_TABLE)) {
+            log.info("No {} table to deduplicate", ADDRESSES_TABLE);
+            return;
+        }
+
+        if (!Migrations.columnExists(connection, ADDRESSES_TABLE, LOCATION_HASH_COLUMN)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("ALTER TABLE addresses ADD COLUMN location_hash CHAR(64)");
+            }
+        }
+
+        long hashedAddresses = V3__Deduplicate_addresses.hashLocations(connection);
+
+        log.info("Hashed the location of {} addresses", hashedAddresses);
+
+        int mergedAddresses = V3__Deduplicate_addresses.mergeDuplicates(connection);
+
+        log.info("Merged {} duplicate addresses", mergedAddresses);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "CREATE UNIQUE INDEX " + Address.LOCATION_CONSTRAINT + " ON addresses (location_hash)"
+            );
+        }
+    }
+
+    /**
+     * Fills the location hash of the addresses a chunk at a time, in the order of their ids, so that neither the
+     * table nor an open cursor is held while updating it.
+     */
+    private static long hashLocations(Connection connection) throws SQLException {
+        long hashedAddresses = 0;
+        long afterId = 0;
+        int chunkSize;
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, street, street_number, zip_code, city, country FROM addresses "
+                        + "WHERE id > ? ORDER BY id LIMIT " + CHUNK_SIZE
+             );
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE addresses SET location_hash = ? WHERE id = ?"
+             )) {
+
+            do {
+                chunkSize = 0;
+                select.setLong(1, afterId);
+
+                try (ResultSet addresses = select.executeQuery()) {
+                    while (addresses.next()) {
+                        afterId = addresses.getLong(1);
+
+                        update.setString(1, Address.hashLocation(
+                                addresses.getString(2),
+                                addresses.getInt(3),
+                                addresses.getString(4),
+                                addresses.getString(5),
+                                addresses.getString(6)
+                        ));
+                        update.setLong(2, afterId);
+                        update.addBatch();
+
+                        chunkSize++;
+                    }
+                }
+
+                update.executeBatch();
+                hashedAddresses += chunkSize;
+            } while (chunkSize == CHUNK_SIZE);
+        }
+
+        return hashedAddresses;
+    }
+
+    /**
+     * Relinks the people of every duplicate address to the oldest address with the same location hash, then deletes
+     * the duplicate. A person linked to several copies keeps a single link: the ones to a copy with an older copy
+     * linked too are dropped first. Only the duplicates are read, grouped by the database.
+     */
+    private static int mergeDuplicates(Connection connection) throws SQLException {
+        int mergedAddresses = 0;
+
+        try (Statement statement = connection.createStatement();
+             ResultSet duplicates = statement.executeQuery(
+                     "SELECT a.id, k.kept_id, a.location_hash FROM addresses a JOIN ("
+                             + "SELECT location_hash, MIN(id) AS kept_id FROM addresses "
+                             + "GROUP BY location_hash HAVING COUNT(*) > 1"
+                             + ") k ON a.location_hash = k.location_hash WHERE a.id <> k.kept_id"
+             );
+             PreparedStatement unlink = connection.prepareStatement(
+                     "DELETE FROM people_addresses WHERE addresses_id = ? AND people_id IN (SELECT people_id FROM ("
+                             + "SELECT pa.people_id FROM people_addresses pa "
+                             + "JOIN addresses o ON o.id = pa.addresses_id "
+                             + "WHERE o.location_hash = ? AND o.id < ?) older)"
+             );
+             PreparedStatement relink = connection.prepareStatement(
+                     "UPDATE people_addresses SET addresses_id = ? WHERE addresses_id = ?"
+             );
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM addresses WHERE id = ?")) {
+
+            while (duplicates.next()) {
+                long duplicateId = duplicates.getLong(1);
+                long keptId = duplicates.getLong(2);
+
+                unlink.setLong(1, duplicateId);
+                unlink.setString(2, duplicates.getString(3));
+                unlink.setLong(3, duplicateId);
+                unlink.addBatch();
+
+                relink.setLong(1, keptId);
+                relink.setLong(2, duplicateId);
+                relink.addBatch();
+
+                delete.setLong(1, duplicateId);
+                delete.addBatch();
+
+                mergedAddresses++;
+            }
+
+            unlink.executeBatch();
+            relink.executeBatch();
+            delete.executeBatch();
+        }
+
+        return mergedAddresses;
+    }
+}
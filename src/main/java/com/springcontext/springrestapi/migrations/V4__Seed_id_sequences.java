@@ -0,0 +1,83 @@
+package com.springcontext.springrestapi.migrations;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves the id sequences of people, companies and addresses past the ids already stored, once these entities went
+ * from IDENTITY columns to pooled sequence generators.
+ *
+ * On MySQL a sequence is a one row table holding the next value, which Hibernate creates starting at 1 when it is
+ * missing: the first inserts would then reuse stored ids. Each sequence table is created here, or raised if Hibernate
+ * already created it, so that its first pool starts right after the greatest stored id. On a fresh database the entity
+ * tables do not exist yet and this migration does nothing.
+ */
+@Slf4j
+public class V4__Seed_id_sequences implements JdbcMigration {
+
+    private static final String[][] SEQUENCES = {
+            {"people", "people_seq"},
+            {"companies", "companies_seq"},
+            {"addresses", "addresses_seq"}
+    };
+
+    /**
+     * The allocation size of the generators: the pooled optimizer hands out the ids up to the value it reads, starting
+     * this many ids below it.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+
+        for (String[] sequence : SEQUENCES) {
+            String table = sequence[0];
+            String sequenceTable = sequence[1];
+
+            if (!Migrations.tableExists(connection, table)) {
+                log.info("No {} table to seed {} from", table, sequenceTable);
+                continue;
+            }
+
+            long nextValue = V4__Seed_id_sequences.maxId(connection, table) + ALLOCATION_SIZE;
+
+            if (Migrations.tableExists(connection, sequenceTable)) {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE " + sequenceTable + " SET next_val = ? WHERE next_val < ?"
+                )) {
+                    update.setLong(1, nextValue);
+                    update.setLong(2, nextValue);
+                    update.executeUpdate();
+                }
+            } else {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("CREATE TABLE " + sequenceTable + " (next_val BIGINT)");
+                }
+
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO " + sequenceTable + " (next_val) VALUES (?)"
+                )) {
+                    insert.setLong(1, nextValue);
+                    insert.executeUpdate();
+                }
+            }
+
+            log.info("Seeded {} past the ids of {}", sequenceTable, table);
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet maxId = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            maxId.next();
+
+            return maxId.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.springcontext.springrestapi.repositories;
+
+import com.springcontext.springrestapi.entities.Address;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface AddressRepository extends JpaRepository<Address, Long>, AddressRepositoryCustom {
+
+    Optional<Address> findByLocationHash(String locationHash);
+
+    /**
+     * Same as {@link #findByLocationHash(String)} as a locking read, which sees the address a concurrent transaction
+     * committed after this one started under MySQL's repeatable read.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Address> findLockedByLocationHash(String locationHash);
+}
@@ -0,0 +1,14 @@
+package com.springcontext.springrestapi.repositories;
+
+import com.springcontext.springrestapi.entities.Address;
+
+public interface AddressRepositoryCustom {
+
+    /**
+     * Inserts the address unless another one with the same location hash is stored, waiting for a concurrent
+     * transaction inserting it to end. Unlike a save, losing that race leaves the current transaction usable.
+     *
+     * @return whether the address was inserted
+     */
+    boolean insertIfAbsent(Address address);
+}
@@ -0,0 +1,80 @@
+package com.springcontext.springrestapi.repositories;
+
+import com.springcontext.springrestapi.entities.Address;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Inserts addresses with plain JDBC under a savepoint: a unique key violation during a Hibernate flush would mark the
+ * whole transaction of the caller for rollback, where here it only rolls back to the savepoint.
+ */
+public class AddressRepositoryImpl implements AddressRepositoryCustom {
+
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean insertIfAbsent(Address address) {
+        SessionImplementor session = this.entityManager.unwrap(SessionImplementor.class);
+
+        Long id = (Long) session.getFactory()
+                .getMetamodel()
+                .entityPersister(Address.class)
+                .getIdentifierGenerator()
+                .generate(session, address);
+
+        address.updateLocationHash();
+
+        return session.doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO addresses (id, version, street, street_number, zip_code, city, country, location_hash) "
+                            + "VALUES (?, 0, ?, ?, ?, ?, ?, ?)"
+            )) {
+                insert.setLong(1, id);
+                insert.setString(2, address.getStreet());
+                insert.setObject(3, address.getStreetNumber());
+                insert.setString(4, address.getZipCode());
+                insert.setString(5, address.getCity());
+                insert.setString(6, address.getCountry());
+                insert.setString(7, address.getLocationHash());
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+
+                if (String.valueOf(e.getSQLState()).startsWith(INTEGRITY_CONSTRAINT_VIOLATION)
+                        && AddressRepositoryImpl.isStored(connection, address.getLocationHash())) {
+                    return false;
+                }
+
+                throw e;
+            }
+
+            connection.releaseSavepoint(savepoint);
+
+            return true;
+        });
+    }
+
+    private static boolean isStored(Connection connection, String locationHash) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id FROM addresses WHERE location_hash = ? FOR UPDATE"
+        )) {
+            select.setString(1, locationHash);
+
+            try (ResultSet addresses = select.executeQuery()) {
+                return addresses.next();
+            }
+        }
+    }
+}
@@ -1,9 +1,75 @@
 package com.springcontext.springrestapi.repositories;
 
 import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface CompanyRepository extends JpaRepository<Company, Long> {
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Company> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /**
+     * Companies whose name starts with the prefix, by name then id, resuming after the name and id of the last
+     * company of the previous page as {@link PersonRepository#searchByName} does.
+     */
+    @Query("SELECT co FROM Company co "
+            + "WHERE co.name LIKE :prefix ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND (co.name > :name OR (co.name = :name AND co.id > :afterId)) "
+            + "ORDER BY co.name, co.id")
+    List<Company> searchByName(
+            @Param("prefix") String prefix,
+            @Param("name") String name,
+            @Param("afterId") long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * The employee rows of a company, with their addresses. Neither this query nor {@link #findEmployeeRows} uses
+     * the query cache: its regions are bounded by entry count, and the whole employee list of a large company would
+     * be a single entry. Clients revalidate the list with its ETag instead.
+     */
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.PersonAddressRow("
+            + "p.id, p.firstname, p.lastname, p.company.id, "
+            + "a.id, a.street, a.streetNumber, a.zipCode, a.city, a.country, p.version, a.version) "
+            + "FROM Person p LEFT JOIN p.addresses a "
+            + "WHERE p.company.id = :id ORDER BY p.id, a.id")
+    List<PersonAddressRow> findEmployeeRowsWithAddresses(@Param("id") long id);
+
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.PersonAddressRow("
+            + "p.id, p.firstname, p.lastname, p.company.id, p.version) "
+            + "FROM Person p WHERE p.company.id = :id ORDER BY p.id")
+    List<PersonAddressRow> findEmployeeRows(@Param("id") long id);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.PersonAddressRow("
+            + "p.id, p.firstname, p.lastname, p.company.id, "
+            + "a.id, a.street, a.streetNumber, a.zipCode, a.city, a.country, p.version, a.version) "
+            + "FROM Person p LEFT JOIN p.addresses a "
+            + "WHERE p.company.id = :id ORDER BY p.id, a.id")
+    Stream<PersonAddressRow> streamEmployeeRowsWithAddresses(@Param("id") long id);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.PersonAddressRow("
+            + "p.id, p.firstname, p.lastname, p.company.id, p.version) "
+            + "FROM Person p WHERE p.company.id = :id ORDER BY p.id")
+    Stream<PersonAddressRow> streamEmployeeRows(@Param("id") long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Company c WHERE c.id = :id")
+    int deleteCompanyById(@Param("id") long id);
 }
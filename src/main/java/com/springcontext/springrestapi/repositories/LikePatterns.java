@@ -0,0 +1,33 @@
+package com.springcontext.springrestapi.repositories;
+
+/**
+ * LIKE pattern helpers shared by the search queries, so that a {@code %} or {@code _} typed by the user is matched as
+ * is rather than as a wildcard.
+ */
+public final class LikePatterns {
+
+    /**
+     * Escape character of the patterns, which the queries matching them declare in their {@code ESCAPE} clause.
+     */
+    public static final char ESCAPE = '!';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Turns a search term into a LIKE pattern matching the values it starts with, its own wildcards escaped.
+     */
+    public static String prefix(String term) {
+        StringBuilder prefix = new StringBuilder(term.length() + 1);
+
+        for (char c : term.toCharArray()) {
+            if (c == ESCAPE || c == '%' || c == '_') {
+                prefix.append(ESCAPE);
+            }
+
+            prefix.append(c);
+        }
+
+        return prefix.append('%').toString();
+    }
+}
@@ -1,9 +1,134 @@
 package com.springcontext.springrestapi.repositories;
 
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.LocationCount;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
-}
\ No newline at end of file
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonRepositoryCustom {
+
+    /**
+     * Keyset condition resuming a search after the last name, first name and id of the last person of the previous
+     * page, in the order of the name index. The first page resumes after two empty names and id 0.
+     */
+    String AFTER_SEARCH_KEY = "(p.lastname > :lastname OR (p.lastname = :lastname AND "
+            + "(p.firstname > :firstname OR (p.firstname = :firstname AND p.id > :afterId))))";
+
+    String SEARCH_ORDER = " ORDER BY p.lastname, p.firstname, p.id LIMIT :limit";
+
+    @EntityGraph(Person.WITH_ADDRESSES)
+    Optional<Person> findWithAddressesById(long id);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Person> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /**
+     * The people with these ids, in no particular order, with their company in the same IN query.
+     */
+    @Query("SELECT p FROM Person p LEFT JOIN FETCH p.company WHERE p.id IN :ids")
+    List<Person> findAllWithCompanyByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Same as {@link #findAllWithCompanyByIdIn}, with their addresses joined in the same query rather than loaded in
+     * batches afterwards.
+     */
+    @EntityGraph(Person.WITH_ADDRESSES)
+    @Query("SELECT DISTINCT p FROM Person p WHERE p.id IN :ids")
+    List<Person> findAllWithAddressesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * People whose first or last name starts with the prefix, by last name then first name: a name equal to the
+     * prefix comes before its longer completions.
+     *
+     * Rather than one scan filtering on either name, the people matching on their last name are read in the order of
+     * the name index, those matching on their first name only through the first name index, and the database merges
+     * the two limited branches. The native union keeps the merge in the collation of the keyset condition.
+     */
+    @Query(nativeQuery = true, value = "SELECT p.* FROM ("
+            + "(SELECT * FROM people p WHERE p.lastname LIKE :prefix ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND " + AFTER_SEARCH_KEY + SEARCH_ORDER + ") "
+            + "UNION ALL "
+            + "(SELECT * FROM people p WHERE p.firstname LIKE :prefix ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND p.lastname NOT LIKE :prefix ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND " + AFTER_SEARCH_KEY + SEARCH_ORDER + ")"
+            + ") p" + SEARCH_ORDER)
+    List<Person> searchByName(
+            @Param("prefix") String prefix,
+            @Param("lastname") String lastname,
+            @Param("firstname") String firstname,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * People whose names start with the two prefixes, first name then last name or the other way around, merged from
+     * one branch per order as {@link #searchByName} does. Both branches range scan the name index on the last name.
+     */
+    @Query(nativeQuery = true, value = "SELECT p.* FROM ("
+            + "(SELECT * FROM people p WHERE p.lastname LIKE :last ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND p.firstname LIKE :first ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND " + AFTER_SEARCH_KEY + SEARCH_ORDER + ") "
+            + "UNION ALL "
+            + "(SELECT * FROM people p WHERE p.lastname LIKE :first ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND p.firstname LIKE :last ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND NOT (p.lastname LIKE :last ESCAPE '" + LikePatterns.ESCAPE + "' "
+            + "AND p.firstname LIKE :first ESCAPE '" + LikePatterns.ESCAPE + "') "
+            + "AND " + AFTER_SEARCH_KEY + SEARCH_ORDER + ")"
+            + ") p" + SEARCH_ORDER)
+    List<Person> searchByFullName(
+            @Param("first") String first,
+            @Param("last") String last,
+            @Param("lastname") String lastname,
+            @Param("firstname") String firstname,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit
+    );
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.LocationCount("
+            + "a.country, COUNT(DISTINCT p.id)) "
+            + "FROM Person p JOIN p.addresses a GROUP BY a.country ORDER BY a.country")
+    List<LocationCount> countByCountry();
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.LocationCount("
+            + "a.country, a.city, COUNT(DISTINCT p.id)) "
+            + "FROM Person p JOIN p.addresses a WHERE :country IS NULL OR a.country = :country "
+            + "GROUP BY a.country, a.city ORDER BY a.country, a.city")
+    List<LocationCount> countByCity(@Param("country") String country);
+
+    /**
+     * Every person joined with its addresses, ordered by person, so that they can be streamed without loading the
+     * addresses of each person with its own select.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.springcontext.springrestapi.repositories.projections.PersonAddressRow("
+            + "p.id, p.firstname, p.lastname, p.company.id, "
+            + "a.id, a.street, a.streetNumber, a.zipCode, a.city, a.country, p.version, a.version) "
+            + "FROM Person p LEFT JOIN p.addresses a ORDER BY p.id, a.id")
+    Stream<PersonAddressRow> streamAllRows();
+
+    /**
+     * Bumps the version of the people it detaches, as their ETag is derived from it.
+     */
+    @Modifying
+    @Query("UPDATE Person p SET p.company = NULL, p.version = p.version + 1 WHERE p.company.id = :companyId")
+    int detachFromCompany(@Param("companyId") long companyId);
+}
@@ -0,0 +1,14 @@
+package com.springcontext.springrestapi.repositories;
+
+import com.springcontext.springrestapi.entities.Person;
+
+import java.util.List;
+
+public interface PersonRepositoryCustom {
+
+    /**
+     * People with at least one address matching the given zip code, city and country, a null one matching any, by
+     * id after the given one, with their company in the same joined query.
+     */
+    List<Person> findByLocation(String zipCode, String city, String country, long afterId, int limit);
+}
@@ -0,0 +1,59 @@
+package com.springcontext.springrestapi.repositories;
+
+import com.springcontext.springrestapi.entities.Person;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+/**
+ * Builds the location filter out of the supplied conditions only. With server-side prepared statements, a
+ * {@code :city IS NULL OR a.city = :city} condition is planned without its value, and the optimizer cannot pick the
+ * address index of a filter that may be missing. Here each combination of filters is a statement of its own, made of
+ * the equality conditions the indexes serve.
+ */
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Person> findByLocation(String zipCode, String city, String country, long afterId, int limit) {
+        Map<String, String> conditions = new LinkedHashMap<>();
+
+        conditions.put("zipCode", zipCode);
+        conditions.put("city", city);
+        conditions.put("country", country);
+
+        StringBuilder jpql = new StringBuilder(
+                "SELECT DISTINCT p FROM Person p LEFT JOIN FETCH p.company JOIN p.addresses a WHERE p.id > :afterId"
+        );
+
+        conditions.forEach((attribute, value) -> {
+            if (Objects.nonNull(value)) {
+                jpql.append(" AND a.").append(attribute).append(" = :").append(attribute);
+            }
+        });
+
+        jpql.append(" ORDER BY p.id");
+
+        TypedQuery<Person> query = this.entityManager.createQuery(jpql.toString(), Person.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .setHint(HINT_CACHEABLE, true);
+
+        conditions.forEach((attribute, value) -> {
+            if (Objects.nonNull(value)) {
+                query.setParameter(attribute, value);
+            }
+        });
+
+        return query.getResultList();
+    }
+}
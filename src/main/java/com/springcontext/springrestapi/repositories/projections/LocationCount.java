@@ -0,0 +1,23 @@
+package com.springcontext.springrestapi.repositories.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Number of people with an address in a country, or in one of its cities when the city is selected.
+ */
+@Data
+@AllArgsConstructor
+public class LocationCount {
+
+    private String country;
+
+    private String city;
+
+    private Long people;
+
+    public LocationCount(String country, Long people) {
+        this.country = country;
+        this.people = people;
+    }
+}
@@ -0,0 +1,48 @@
+package com.springcontext.springrestapi.repositories.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Flat projection of a person joined with one of its addresses, or with no address at all when the addresses are
+ * not selected.
+ *
+ * Selecting these rows with a constructor expression avoids loading the entities and their eager associations. The
+ * versions of the person and of the address identify the state the row was read in.
+ */
+@Data
+@AllArgsConstructor
+public class PersonAddressRow {
+
+    private Long personId;
+
+    private String firstname;
+
+    private String lastname;
+
+    private Long companyId;
+
+    private Long addressId;
+
+    private String street;
+
+    private Integer streetNumber;
+
+    private String zipCode;
+
+    private String city;
+
+    private String country;
+
+    private Long personVersion;
+
+    private Long addressVersion;
+
+    public PersonAddressRow(Long personId, String firstname, String lastname, Long companyId, Long personVersion) {
+        this.personId = personId;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.companyId = companyId;
+        this.personVersion = personVersion;
+    }
+}
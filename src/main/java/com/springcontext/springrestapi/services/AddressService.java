@@ -0,0 +1,80 @@
+package com.springcontext.springrestapi.services;
+
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.repositories.AddressRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class AddressService {
+
+    private static final int INTERNED_ADDRESSES = 10000;
+
+    private final AddressRepository addressRepository;
+
+    /**
+     * Ids of the most recently used addresses by location hash, so a repeated address is resolved through the
+     * second-level cache without probing the unique index again.
+     */
+    private final Map<String, Long> internedIds = Collections.synchronizedMap(
+            new LinkedHashMap<String, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return this.size() > INTERNED_ADDRESSES;
+                }
+            }
+    );
+
+    @Autowired
+    public AddressService(AddressRepository addressRepository) {
+        this.addressRepository = addressRepository;
+    }
+
+    /**
+     * Returns the stored address with the same street, number, zip code, city and country as the given one, case and
+     * surrounding whitespace aside, inserting it first when there is none. A concurrent transaction inserting the same
+     * address first is waited for and its address returned. Must run inside the caller's transaction so the returned
+     * address is managed.
+     */
+    public Address resolve(Address address) {
+        address.updateLocationHash();
+
+        String locationHash = address.getLocationHash();
+
+        Long internedId = this.internedIds.get(locationHash);
+
+        if (Objects.nonNull(internedId)) {
+            Optional<Address> interned = this.addressRepository.findById(internedId);
+
+            if (interned.isPresent() && locationHash.equals(interned.get().getLocationHash())) {
+                return interned.get();
+            }
+
+            this.internedIds.remove(locationHash);
+        }
+
+        Address storedAddress = this.addressRepository.findByLocationHash(locationHash).orElseGet(() -> {
+            if (this.addressRepository.insertIfAbsent(address)) {
+                log.debug("Added a new address in {}, {}", address.getCity(), address.getCountry());
+            } else {
+                log.debug("Address in {}, {} inserted concurrently", address.getCity(), address.getCountry());
+            }
+
+            return this.addressRepository.findLockedByLocationHash(locationHash).orElseThrow(
+                    () -> new IllegalStateException("No address with location hash " + locationHash)
+            );
+        });
+
+        this.internedIds.put(locationHash, storedAddress.getId());
+
+        return storedAddress;
+    }
+}
@@ -0,0 +1,27 @@
+package com.springcontext.springrestapi.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+
+@Service
+@Slf4j
+public class CacheService {
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public CacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public Statistics getStatistics() {
+        log.debug("Fetching the second-level cache statistics");
+
+        return this.sessionFactory.getStatistics();
+    }
+}
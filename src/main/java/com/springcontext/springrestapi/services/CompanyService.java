@@ -3,13 +3,23 @@ package com.springcontext.springrestapi.services;
 import com.springcontext.springrestapi.entities.Company;
 import com.springcontext.springrestapi.entities.Person;
 import com.springcontext.springrestapi.repositories.CompanyRepository;
+import com.springcontext.springrestapi.repositories.LikePatterns;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -26,13 +36,16 @@ public class CompanyService {
     }
 
     public Company create(Company company) {
-        log.info("Adding a new company - name {}", company.getName());
+        log.debug("Adding a new company - name {}", company.getName());
 
         return this.companyRepository.save(company);
     }
 
+    @Transactional(readOnly = true)
     public Company getById(long id) {
-        log.info("Trying to fetch Company with id {}", id);
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch Company with id {}", id);
+        }
 
         Optional<Company> company = this.companyRepository.findById(id);
 
@@ -45,26 +58,166 @@ public class CompanyService {
         return null;
     }
 
-    public Company addEmployee(long companyId, long personId) {
+    /**
+     * Loads the companies with the given ids in a single IN query and converts them inside the read-only transaction.
+     *
+     * @return the converted companies by id, without the ids matching no company
+     */
+    @Transactional(readOnly = true)
+    public <T> Map<Long, T> getAllById(Collection<Long> ids, Function<? super Company, T> converter) {
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch {} companies by id", ids.size());
+        }
+
+        return this.companyRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Company::getId, converter));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean exists(long id) {
+        return this.companyRepository.existsById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public <T> List<T> getPage(long afterId, int limit, Function<? super Company, T> converter) {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching {} companies after id {}", limit, afterId);
+        }
+
+        return this.companyRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit))
+                .stream()
+                .map(converter)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Searches companies by name prefix, by name then id, the next page resuming after the name and id of the last
+     * company of the previous one, an empty name and id 0 for the first page.
+     */
+    @Transactional(readOnly = true)
+    public <T> List<T> search(
+            String query,
+            String afterName,
+            long afterId,
+            int limit,
+            Function<? super Company, T> converter
+    ) {
+        if (log.isDebugEnabled()) {
+            log.debug("Searching {} companies matching '{}' after id {}", limit, query, afterId);
+        }
+
+        String prefix = LikePatterns.prefix(query.trim());
+
+        return this.companyRepository.searchByName(prefix, afterName, afterId, PageRequest.of(0, limit))
+                .stream()
+                .map(converter)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PersonAddressRow> getEmployees(long id) {
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch the employees of Company with id {}", id);
+        }
+
+        if (!this.companyRepository.existsById(id)) {
+            log.error("No company found with id {}", id);
+
+            return null;
+        }
+
+        return this.companyRepository.findEmployeeRows(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PersonAddressRow> getEmployeesWithAddresses(long id) {
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch the employees of Company with id {} and their addresses", id);
+        }
+
+        if (!this.companyRepository.existsById(id)) {
+            log.error("No company found with id {}", id);
+
+            return null;
+        }
+
+        return this.companyRepository.findEmployeeRowsWithAddresses(id);
+    }
+
+    /**
+     * Streams the employee rows of a company, ordered by person, to the consumer inside a read-only transaction,
+     * so that a large company is never held in memory at once.
+     */
+    @Transactional(readOnly = true)
+    public long exportEmployees(long id, boolean withAddresses, Consumer<PersonAddressRow> consumer) {
+        if (log.isDebugEnabled()) {
+            log.debug("Exporting the employees of Company with id {}", id);
+        }
+
+        long count = 0;
+
+        try (Stream<PersonAddressRow> rows = withAddresses
+                ? this.companyRepository.streamEmployeeRowsWithAddresses(id)
+                : this.companyRepository.streamEmployeeRows(id)) {
+
+            for (PersonAddressRow row : (Iterable<PersonAddressRow>) rows::iterator) {
+                consumer.accept(row);
+                count++;
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Exported {} employee rows", count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Moves the person into the company and converts the company, employees included, before the transaction ends.
+     *
+     * @return the converted company, or null if the company or the person does not exist
+     */
+    @Transactional
+    public <T> T addEmployee(long companyId, long personId, Function<? super Company, T> converter) {
         Company company = this.getById(companyId);
 
         if (Objects.nonNull(company)) {
             Person person = this.personService.getById(personId);
 
             if (Objects.nonNull(person)) {
-                log.info("Adding Person {} in Company {}", personId, companyId);
+                if (log.isDebugEnabled()) {
+                    log.debug("Adding Person {} in Company {}", personId, companyId);
+                }
 
-                company.addEmployee(person);
-                person.setCompany(company);
+                this.personService.changeCompany(person, company);
 
-                this.companyRepository.save(company);
+                company.addEmployee(person);
             }
         }
 
-        return company;
+        return Objects.isNull(company) ? null : converter.apply(company);
     }
 
-    public void delete(long id) {
-        this.companyRepository.deleteById(id);
+    /**
+     * Detaches the employees and deletes the company in one transaction, with a fixed number of statements whatever
+     * the number of employees.
+     *
+     * @return the number of detached employees
+     */
+    @Transactional
+    public int delete(long id) {
+        if (log.isDebugEnabled()) {
+            log.debug("Deleting Company with id {}", id);
+        }
+
+        int detachedEmployees = this.personService.detachEmployees(id);
+
+        if (this.companyRepository.deleteCompanyById(id) == 0) {
+            log.error("No company found with id {}", id);
+        }
+
+        return detachedEmployees;
     }
 }
\ No newline at end of file
@@ -1,13 +1,34 @@
 package com.springcontext.springrestapi.services;
 
 import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Company;
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.LikePatterns;
 import com.springcontext.springrestapi.repositories.PersonRepository;
+import com.springcontext.springrestapi.repositories.projections.LocationCount;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -15,19 +36,51 @@ public class PersonService {
 
     private final PersonRepository personRepository;
 
+    private final AddressService addressService;
+
+    private final EntityManager entityManager;
+
     @Autowired
-    public PersonService(PersonRepository personRepository) {
+    public PersonService(PersonRepository personRepository, AddressService addressService, EntityManager entityManager) {
         this.personRepository = personRepository;
+        this.addressService = addressService;
+        this.entityManager = entityManager;
     }
 
+    @Transactional
     public Person create(Person person) {
-        log.info("Adding a new person - firstname {}, lastname {}", person.getFirstname(), person.getLastname());
+        log.debug("Adding a new person - firstname {}, lastname {}", person.getFirstname(), person.getLastname());
+
+        this.resolveAddresses(person);
 
         return this.personRepository.save(person);
     }
 
+    /**
+     * Persists a chunk of people in a single transaction so that Hibernate can batch the inserts, then detaches
+     * them so that a long import does not keep every imported entity in the persistence context.
+     */
+    @Transactional
+    public List<Person> createAll(List<Person> people) {
+        if (log.isDebugEnabled()) {
+            log.debug("Adding {} new people", people.size());
+        }
+
+        people.forEach(this::resolveAddresses);
+
+        List<Person> createdPeople = this.personRepository.saveAll(people);
+
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        return createdPeople;
+    }
+
+    @Transactional(readOnly = true)
     public Person getById(long id) {
-        log.info("Trying to fetch Person with id {}", id);
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch Person with id {}", id);
+        }
 
         Optional<Person> person = this.personRepository.findById(id);
 
@@ -40,26 +93,328 @@ public class PersonService {
         return null;
     }
 
+    /**
+     * Converts the person inside the read-only transaction, while its lazy associations can still be loaded.
+     *
+     * @return the converted person, or null if there is none with this id
+     */
+    @Transactional(readOnly = true)
+    public <T> T getById(long id, Function<? super Person, T> converter) {
+        Person person = this.getById(id);
+
+        return Objects.isNull(person) ? null : converter.apply(person);
+    }
+
+    /**
+     * Loads the people with the given ids in a single IN query and converts them inside the read-only transaction.
+     *
+     * @return the converted people by id, without the ids matching no person
+     */
+    @Transactional(readOnly = true)
+    public <T> Map<Long, T> getAllById(Collection<Long> ids, Function<? super Person, T> converter) {
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch {} people by id", ids.size());
+        }
+
+        return this.personRepository.findAllWithCompanyByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Person::getId, converter));
+    }
+
+    /**
+     * Same as {@link #getAllById(Collection, Function)}, the addresses of the people loaded in the same query.
+     */
+    @Transactional(readOnly = true)
+    public <T> Map<Long, T> getAllByIdWithAddresses(Collection<Long> ids, Function<? super Person, T> converter) {
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch {} people by id and their addresses", ids.size());
+        }
+
+        return this.personRepository.findAllWithAddressesByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Person::getId, converter));
+    }
+
+    @Transactional(readOnly = true)
+    public <T> T getByIdWithAddresses(long id, Function<? super Person, T> converter) {
+        if (log.isDebugEnabled()) {
+            log.debug("Trying to fetch Person with id {} and its addresses", id);
+        }
+
+        Optional<Person> person = this.personRepository.findWithAddressesById(id);
+
+        if (person.isPresent()) {
+            return converter.apply(person.get());
+        }
+
+        log.error("No person found with id {}", id);
+
+        return null;
+    }
+
+    /**
+     * Converts the people of the page only: the one fetched past its size only tells whether a next page exists.
+     */
+    @Transactional(readOnly = true)
+    public <T> Slice<T> getPage(long afterId, int size, Function<? super Person, T> converter) {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching {} people after id {}", size, afterId);
+        }
+
+        List<Person> people =
+                this.personRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size + 1));
+
+        return PersonService.toSlice(people, size, converter);
+    }
+
+    /**
+     * Same as {@link #getPage(long, int, Function)}, restricted to the people with an address matching the given
+     * zip code, city and country. A null one matches any.
+     */
+    @Transactional(readOnly = true)
+    public <T> Slice<T> getPageByLocation(
+            String zipCode,
+            String city,
+            String country,
+            long afterId,
+            int size,
+            Function<? super Person, T> converter
+    ) {
+        if (log.isDebugEnabled()) {
+            log.debug("Fetching {} people in {} {} {} after id {}", size, zipCode, city, country, afterId);
+        }
+
+        List<Person> people = this.personRepository.findByLocation(zipCode, city, country, afterId, size + 1);
+
+        return PersonService.toSlice(people, size, converter);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LocationCount> countByCountry() {
+        log.debug("Counting people per country");
+
+        return this.personRepository.countByCountry();
+    }
+
+    /**
+     * @param country the only country to count people in, or null for every country
+     */
+    @Transactional(readOnly = true)
+    public List<LocationCount> countByCity(String country) {
+        log.debug("Counting people per city in {}", country);
+
+        return this.personRepository.countByCity(country);
+    }
+
+    /**
+     * Searches people by name prefix. A single word is matched against the first and last names, two words or more
+     * against the first name then the last name, in either order. The results come by last name then first name,
+     * exact names before their longer completions, and the next page resumes after the last name, first name and id
+     * of the last person of the previous one, empty names and id 0 for the first page.
+     */
+    @Transactional(readOnly = true)
+    public <T> Slice<T> search(
+            String query,
+            String afterLastname,
+            String afterFirstname,
+            long afterId,
+            int size,
+            Function<? super Person, T> converter
+    ) {
+        if (log.isDebugEnabled()) {
+            log.debug("Searching {} people matching '{}' after id {}", size, query, afterId);
+        }
+
+        String[] terms = query.trim().split("\\s+", 2);
+        String first = LikePatterns.prefix(terms[0]);
+
+        List<Person> people = terms.length == 1
+                ? this.personRepository.searchByName(first, afterLastname, afterFirstname, afterId, size + 1)
+                : this.personRepository.searchByFullName(
+                        first, LikePatterns.prefix(terms[1]), afterLastname, afterFirstname, afterId, size + 1
+                );
+
+        return PersonService.toSlice(people, size, converter);
+    }
+
+    /**
+     * Streams every person, joined with its addresses and ordered by person, to the consumer inside a read-only
+     * transaction. The rows are projections rather than entities, so nothing piles up in the persistence context
+     * whatever the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(Consumer<PersonAddressRow> consumer) {
+        log.debug("Exporting all the people");
+
+        long count = 0;
+
+        try (Stream<PersonAddressRow> rows = this.personRepository.streamAllRows()) {
+            for (PersonAddressRow row : (Iterable<PersonAddressRow>) rows::iterator) {
+                consumer.accept(row);
+                count++;
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Exported {} person rows", count);
+        }
+
+        return count;
+    }
+
+    @Transactional
     public Person addAddress(long id, Address address) {
 
         Person person = this.getById(id);
 
-        log.info("Adding new address to Person with id {}", id);
+        if (Objects.isNull(person)) {
+            return null;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adding new address to Person with id {}", id);
+        }
 
-        person.addAddress(address);
+        Address storedAddress = this.addressService.resolve(address);
 
-        return this.personRepository.save(person);
+        person.addAddress(storedAddress);
+
+        Person savedPerson = this.personRepository.save(person);
+
+        this.evictInverseCollections(savedPerson);
+
+        return savedPerson;
     }
 
+    /**
+     * Same as {@link #addAddress(long, Address)}, converting the person once flushed, in its new version, before the
+     * transaction ends.
+     *
+     * @param expectedVersions the versions one of which the person must still be in, or null to add the address
+     * whatever its version
+     * @throws ObjectOptimisticLockingFailureException if the person is in another version or is updated concurrently
+     */
+    @Transactional
+    public <T> T addAddress(
+            long id,
+            Address address,
+            Collection<Long> expectedVersions,
+            Function<? super Person, T> converter
+    ) {
+        if (Objects.nonNull(expectedVersions)) {
+            Person person = this.getById(id);
+
+            if (Objects.nonNull(person) && !expectedVersions.contains(person.getVersion())) {
+                log.error("Person with id {} is in version {} rather than one of {}",
+                        id, person.getVersion(), expectedVersions);
+
+                throw new ObjectOptimisticLockingFailureException(Person.class, id);
+            }
+        }
+
+        Person person = this.addAddress(id, address);
+
+        if (Objects.isNull(person)) {
+            return null;
+        }
+
+        this.personRepository.flush();
+
+        return converter.apply(person);
+    }
+
+    @Transactional
     public void delete(long id) {
-        log.info("Deleting Person with id {}", id);
+        if (log.isDebugEnabled()) {
+            log.debug("Deleting Person with id {}", id);
+        }
+
+        Optional<Person> person = this.personRepository.findById(id);
 
         this.personRepository.deleteById(id);
+
+        person.ifPresent(this::evictInverseCollections);
+    }
+
+    public int detachEmployees(long companyId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Detaching all the employees of Company with id {}", companyId);
+        }
+
+        return this.personRepository.detachFromCompany(companyId);
+    }
+
+    public Person changeCompany(Person person, Company company) {
+        Company previousCompany = person.getCompany();
+
+        person.setCompany(company);
+
+        Person savedPerson = this.personRepository.save(person);
+
+        this.evictEmployees(previousCompany);
+        this.evictEmployees(company);
+
+        return savedPerson;
     }
 
     public void removeCompany(Person person) {
-        person.setCompany(null);
+        this.changeCompany(person, null);
+    }
+
+    /**
+     * Replaces the addresses of a new person with the stored ones, so that an address shared with other people is
+     * linked rather than inserted again.
+     */
+    private void resolveAddresses(Person person) {
+        if (Objects.isNull(person.getAddresses())) {
+            return;
+        }
+
+        Set<Address> storedAddresses = new LinkedHashSet<>();
+
+        person.getAddresses().stream().map(this.addressService::resolve).forEach(storedAddresses::add);
+
+        person.setAddresses(storedAddresses);
+    }
+
+    /**
+     * Hibernate only invalidates the cached collections of the owning side of an association, so the cached
+     * {@code Company.employees} and {@code Address.people} collections go stale when the person side changes.
+     */
+    private void evictEmployees(Company company) {
+        if (Objects.nonNull(company) && Objects.nonNull(company.getId())) {
+            this.evictCollection(Company.class.getName() + ".employees", company.getId());
+        }
+    }
+
+    private void evictInverseCollections(Person person) {
+        this.evictEmployees(person.getCompany());
+
+        if (Objects.nonNull(person.getAddresses())) {
+            person.getAddresses().stream()
+                    .map(Address::getId)
+                    .filter(Objects::nonNull)
+                    .forEach(addressId -> this.evictCollection(Address.class.getName() + ".people", addressId));
+        }
+    }
+
+    private void evictCollection(String role, Long ownerId) {
+        log.debug("Evicting cached collection {} of {}", role, ownerId);
+
+        this.entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getCache()
+                .evictCollection(role, ownerId);
+    }
+
+    /**
+     * Converts the first {@code size} of the people fetched with a limit of {@code size + 1}, the extra one only
+     * telling whether a next page exists. Converting it too could load its lazy associations for nothing, past the
+     * batch of a full page.
+     */
+    private static <T> Slice<T> toSlice(List<Person> people, int size, Function<? super Person, T> converter) {
+        List<T> content = people.stream().limit(size).map(converter).collect(Collectors.toList());
 
-        this.personRepository.save(person);
+        return new SliceImpl<>(content, PageRequest.of(0, size), people.size() > size);
     }
-}
\ No newline at end of file
+}
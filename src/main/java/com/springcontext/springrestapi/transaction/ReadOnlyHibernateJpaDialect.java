@@ -0,0 +1,59 @@
+package com.springcontext.springrestapi.transaction;
+
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+
+/**
+ * Besides the MANUAL flush mode Spring already applies to read-only transactions, loads their entities read-only:
+ * Hibernate then keeps no snapshot of their state and skips them when dirty checking.
+ */
+public class ReadOnlyHibernateJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+
+        Object transactionData = super.beginTransaction(entityManager, definition);
+
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+
+        session.setDefaultReadOnly(true);
+
+        return new ReadOnlyTransactionData(session, transactionData);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+
+        if (transactionData instanceof ReadOnlyTransactionData) {
+            ReadOnlyTransactionData readOnlyTransactionData = (ReadOnlyTransactionData) transactionData;
+
+            readOnlyTransactionData.session.setDefaultReadOnly(false);
+
+            super.cleanupTransaction(readOnlyTransactionData.transactionData);
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private static final class ReadOnlyTransactionData {
+
+        private final Session session;
+
+        private final Object transactionData;
+
+        private ReadOnlyTransactionData(Session session, Object transactionData) {
+            this.session = session;
+            this.transactionData = transactionData;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.springcontext.springrestapi.transaction;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+/**
+ * Makes the entity manager factory, and through it the transaction manager, use the
+ * {@link ReadOnlyHibernateJpaDialect}. Spring Boot takes its dialect from the vendor adapter, unless one is set
+ * before the factory is initialized.
+ */
+@Configuration
+public class TransactionConfiguration {
+
+    @Bean
+    public static BeanPostProcessor readOnlyJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+
+                if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+                    ((LocalContainerEntityManagerFactoryBean) bean).setJpaDialect(new ReadOnlyHibernateJpaDialect());
+                }
+
+                return bean;
+            }
+        };
+    }
+}
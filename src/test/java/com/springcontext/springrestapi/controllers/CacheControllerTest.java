@@ -0,0 +1,89 @@
+package com.springcontext.springrestapi.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcontext.springrestapi.controllers.dto.cache.CacheRegionStatisticsDto;
+import com.springcontext.springrestapi.controllers.dto.cache.CacheStatisticsDto;
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.services.CacheService;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@EnableWebMvc
+@SpringBootTest
+public class CacheControllerTest {
+
+    private static final String REGION = Person.class.getName();
+    private static final long HIT_COUNT = 3L;
+    private static final long MISS_COUNT = 1L;
+    private static final long PUT_COUNT = 1L;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mvc;
+
+    @MockBean
+    private CacheService cacheService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    public void getStatistics_should_returnStatisticsPerRegion() throws Exception {
+
+        Statistics statistics = mock(Statistics.class);
+        SecondLevelCacheStatistics regionStatistics = mock(SecondLevelCacheStatistics.class);
+
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(HIT_COUNT);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(MISS_COUNT);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{REGION});
+        when(statistics.getSecondLevelCacheStatistics(REGION)).thenReturn(regionStatistics);
+        when(regionStatistics.getHitCount()).thenReturn(HIT_COUNT);
+        when(regionStatistics.getPutCount()).thenReturn(PUT_COUNT);
+
+        when(this.cacheService.getStatistics()).thenReturn(statistics);
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/cache/statistics")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        CacheStatisticsDto cacheStatisticsDto = this.objectMapper.readValue(response, CacheStatisticsDto.class);
+
+        assertThat(cacheStatisticsDto.getHitCount()).isEqualTo(HIT_COUNT);
+        assertThat(cacheStatisticsDto.getMissCount()).isEqualTo(MISS_COUNT);
+        assertThat(cacheStatisticsDto.getRegions()).isNotNull().hasSize(1);
+
+        CacheRegionStatisticsDto region = cacheStatisticsDto.getRegions().get(0);
+
+        assertThat(region.getRegion()).isNotNull().isEqualTo(REGION);
+        assertThat(region.getHitCount()).isEqualTo(HIT_COUNT);
+        assertThat(region.getPutCount()).isEqualTo(PUT_COUNT);
+    }
+}
@@ -1,14 +1,19 @@
 package com.springcontext.springrestapi.controllers;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.springcontext.springrestapi.controllers.dto.address.AddressDto;
 import com.springcontext.springrestapi.controllers.dto.company.CompanyRequestDto;
 import com.springcontext.springrestapi.controllers.dto.company.CompanyResponseDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetResponseDto;
+import com.springcontext.springrestapi.controllers.dto.page.PageResponseDto;
 import com.springcontext.springrestapi.controllers.dto.person.PersonResponseDto;
 import com.springcontext.springrestapi.entities.Address;
 import com.springcontext.springrestapi.entities.Company;
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import com.springcontext.springrestapi.services.CompanyService;
 import com.springcontext.springrestapi.services.PersonService;
 import org.junit.Before;
@@ -29,13 +34,18 @@ import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -73,6 +83,9 @@ public class CompanyControllerTest {
     private static final Long COMPANY_ID = 1L;
     private static final String COMPANY_NAME = "Spring-Context";
 
+    private static final Long COMPANY_ID_2 = 2L;
+    private static final String COMPANY_NAME_2 = "Spring-Context_2";
+
     @Autowired
     private WebApplicationContext context;
 
@@ -130,28 +143,150 @@ public class CompanyControllerTest {
     }
 
     @Test
-    public void getEmployees_should_returnAllEmployees() throws Exception {
+    public void getCompanies_should_returnPageWithoutEmployees() throws Exception {
 
-        Address address1 = createAddress1();
-        Address address2 = createAddress2();
+        Company company = new Company();
 
-        Person person = createPerson(address1);
-        Person person2 = createPerson2(address2);
+        company.setId(COMPANY_ID);
+        company.setName(COMPANY_NAME);
+        company.addEmployee(createPerson(createAddress1()));
+
+        Company company2 = new Company();
+
+        company2.setId(COMPANY_ID_2);
+        company2.setName(COMPANY_NAME_2);
+
+        when(this.companyService.getPage(eq(0L), eq(Pagination.DEFAULT_PAGE_SIZE + 1), any()))
+                .then(Converters.convertingAll(Arrays.asList(company, company2)));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<CompanyResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<CompanyResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).isNotNull().hasSize(2);
+        assertThat(page.getNext()).isNull();
+
+        CompanyResponseDto first = page.getItems().get(0);
+
+        assertThat(first.getId()).isNotNull().isEqualTo(COMPANY_ID);
+        assertThat(first.getName()).isNotNull().isEqualTo(COMPANY_NAME);
+        assertThat(first.getEmployees()).isNull();
+    }
+
+    @Test
+    public void getCompaniesById_should_returnCompaniesInRequestOrderAndMissingIds() throws Exception {
 
         Company company = new Company();
 
         company.setId(COMPANY_ID);
         company.setName(COMPANY_NAME);
-        company.setEmployees(Arrays.asList(person, person2));
+        company.addEmployee(createPerson(createAddress1()));
 
-        when(this.companyService.getById(COMPANY_ID)).thenReturn(company);
+        Company company2 = new Company();
 
-        CompanyRequestDto companyRequestDto = new CompanyRequestDto();
+        company2.setId(COMPANY_ID_2);
+        company2.setName(COMPANY_NAME_2);
 
-        companyRequestDto.setName(COMPANY_NAME);
+        when(this.companyService.getAllById(any(), any()))
+                .then(Converters.convertingById(Arrays.asList(company, company2), Company::getId));
+
+        MvcResult mvcResult = this.mvc.perform(
+                post("/company/_mget")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"ids\": [42, " + COMPANY_ID_2 + ", " + COMPANY_ID + "]}")
+        ).andExpect(status().isOk()).andReturn();
+
+        MultiGetResponseDto<CompanyResponseDto> response = this.objectMapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                new TypeReference<MultiGetResponseDto<CompanyResponseDto>>(){}
+        );
+
+        assertThat(response.getItems()).extracting(CompanyResponseDto::getId).containsExactly(COMPANY_ID_2, COMPANY_ID);
+        assertThat(response.getItems().get(1).getEmployees()).isNull();
+        assertThat(response.getMissing()).containsExactly(42L);
+    }
+
+    @Test
+    public void getCompanies_should_returnSmilePageWhenAccepted() throws Exception {
+
+        Company company = new Company();
+
+        company.setId(COMPANY_ID);
+        company.setName(COMPANY_NAME);
+
+        when(this.companyService.getPage(eq(0L), eq(Pagination.DEFAULT_PAGE_SIZE + 1), any()))
+                .then(Converters.convertingAll(Arrays.asList(company)));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company").accept(MediaTypes.APPLICATION_SMILE)
+        ).andExpect(status().isOk()).andReturn();
+
+        assertThat(MediaTypes.APPLICATION_SMILE.isCompatibleWith(
+                MediaType.valueOf(mvcResult.getResponse().getContentType())
+        )).isTrue();
+
+        PageResponseDto<CompanyResponseDto> page = new ObjectMapper(new SmileFactory()).readValue(
+                mvcResult.getResponse().getContentAsByteArray(),
+                new TypeReference<PageResponseDto<CompanyResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getItems().get(0).getName()).isEqualTo(COMPANY_NAME);
+    }
+
+    @Test
+    public void searchCompanies_should_resumeFromCursor() throws Exception {
+
+        Company company2 = new Company();
+
+        company2.setId(COMPANY_ID_2);
+        company2.setName(COMPANY_NAME_2);
+
+        when(this.companyService.search(
+                eq("Spring"), eq(COMPANY_NAME), eq(COMPANY_ID.longValue()), eq(Pagination.DEFAULT_PAGE_SIZE + 1), any()
+        )).then(Converters.convertingAll(Arrays.asList(company2)));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company/search")
+                        .param("q", "Spring")
+                        .param("cursor", Pagination.encodeCursor(Collections.singletonList(COMPANY_NAME), COMPANY_ID))
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<CompanyResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<CompanyResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).isNotNull().hasSize(1);
+        assertThat(page.getItems().get(0).getName()).isNotNull().isEqualTo(COMPANY_NAME_2);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    public void getEmployees_should_returnAllEmployeesWithExpandedAddresses() throws Exception {
+
+        Address address1 = createAddress1();
+        Address address2 = createAddress2();
+
+        Person person = createPerson(address1);
+        Person person2 = createPerson2(address2);
+
+        when(this.companyService.getEmployeesWithAddresses(COMPANY_ID)).thenReturn(
+                Arrays.asList(createRow(person, address1), createRow(person2, address2))
+        );
 
         MvcResult mvcResult = this.mvc.perform(
                 get("/company/" + COMPANY_ID + "/people")
+                        .param("expand", PersonController.EXPAND_ADDRESSES)
         ).andExpect(status().isOk()).andReturn();
 
         String response = mvcResult.getResponse().getContentAsString();
@@ -183,6 +318,8 @@ public class CompanyControllerTest {
         PersonResponseDto employee2 = employees.get(1);
 
         assertThat(employee1).isNotNull();
+        assertThat(employee1.getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(employee1.getCompany()).isNotNull().isEqualTo(COMPANY_ID);
         assertThat(employee1.getFirstname()).isNotNull().isEqualTo(FIRSTNAME);
         assertThat(employee1.getLastname()).isNotNull().isEqualTo(LASTNAME);
         assertThat(employee1.getAddresses()).isNotNull().hasSize(1);
@@ -209,9 +346,150 @@ public class CompanyControllerTest {
         assertThat(fetchedAddress2.getZipCode()).isNotNull().isEqualTo(ZIP_CODE_2);
     }
 
+    @Test
+    public void getEmployees_should_returnNotModifiedWhenTheETagMatches() throws Exception {
+
+        List<PersonAddressRow> rows = Arrays.asList(
+                createRow(createPerson(createAddress1())),
+                createRow(createPerson2(createAddress2()))
+        );
+
+        when(this.companyService.getEmployees(COMPANY_ID)).thenReturn(rows);
+
+        String etag = "\"" + PersonController.version(rows, false) + "\"";
+
+        this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people")
+        ).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people").header(HttpHeaders.IF_NONE_MATCH, etag)
+        ).andExpect(status().isNotModified());
+
+        rows.get(1).setPersonVersion(1L);
+
+        this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people").header(HttpHeaders.IF_NONE_MATCH, etag)
+        ).andExpect(status().isOk());
+    }
+
+    @Test
+    public void getEmployees_should_omitAddressesByDefault() throws Exception {
+
+        Person person = createPerson(createAddress1());
+        Person person2 = createPerson2(createAddress2());
+
+        when(this.companyService.getEmployees(COMPANY_ID)).thenReturn(
+                Arrays.asList(createRow(person), createRow(person2))
+        );
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        List<PersonResponseDto> employees = this.objectMapper.readValue(
+                response,
+                new TypeReference<List<PersonResponseDto>>(){}
+        );
+
+        assertThat(employees).isNotNull().hasSize(2);
+
+        PersonResponseDto employee1 = employees.get(0);
+        PersonResponseDto employee2 = employees.get(1);
+
+        assertThat(employee1.getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(employee1.getFirstname()).isNotNull().isEqualTo(FIRSTNAME);
+        assertThat(employee1.getAddresses()).isNull();
+
+        assertThat(employee2.getId()).isNotNull().isEqualTo(PERSON_ID_2);
+        assertThat(employee2.getFirstname()).isNotNull().isEqualTo(FIRSTNAME_2);
+        assertThat(employee2.getAddresses()).isNull();
+    }
+
+    @Test
+    public void streamEmployees_should_writeTheSameJsonAsTheMaterializedResponse() throws Exception {
+
+        Address address1 = createAddress1();
+        Address address2 = createAddress2();
+
+        Person person = createPerson(address1);
+        Person person2 = createPerson2(address2);
+
+        List<PersonAddressRow> rows = Arrays.asList(
+                createRow(person, address1),
+                createRow(person, address2),
+                createRow(person2, address2),
+                new PersonAddressRow(3L, FIRSTNAME, LASTNAME_2, null, null, null, null, null, null, null, 0L, null)
+        );
+
+        this.mockEmployeeExport(true, rows);
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people")
+                        .param("stream", "true")
+                        .param("expand", PersonController.EXPAND_ADDRESSES)
+        ).andExpect(request().asyncStarted()).andReturn();
+
+        this.mvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+
+        String streamed = mvcResult.getResponse().getContentAsString();
+        String materialized = this.objectMapper.writeValueAsString(PersonController.convertRows(rows, true));
+
+        JsonNode employees = this.objectMapper.readTree(streamed);
+
+        assertThat(employees.size()).isEqualTo(3);
+        assertThat(employees.get(0).get("addresses").size()).isEqualTo(2);
+        assertThat(employees.get(2).get("addresses").size()).isEqualTo(0);
+        assertThat(streamed).isEqualTo(materialized);
+    }
+
+    @Test
+    public void streamEmployees_should_omitAddressesByDefault() throws Exception {
+
+        List<PersonAddressRow> rows = Arrays.asList(
+                createRow(createPerson(createAddress1())),
+                createRow(createPerson2(createAddress2()))
+        );
+
+        this.mockEmployeeExport(false, rows);
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people").param("stream", "true")
+        ).andExpect(request().asyncStarted()).andReturn();
+
+        this.mvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+
+        List<PersonResponseDto> employees = this.objectMapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                new TypeReference<List<PersonResponseDto>>(){}
+        );
+
+        assertThat(employees).isNotNull().hasSize(2);
+        assertThat(employees.get(0).getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(employees.get(0).getCompany()).isNotNull().isEqualTo(COMPANY_ID);
+        assertThat(employees.get(0).getAddresses()).isNull();
+        assertThat(employees.get(1).getFirstname()).isNotNull().isEqualTo(FIRSTNAME_2);
+    }
+
+    @Test
+    public void streamEmployees_should_returnNullWhenCompanyDoesNotExist() throws Exception {
+
+        when(this.companyService.exists(COMPANY_ID)).thenReturn(false);
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/company/" + COMPANY_ID + "/people").param("stream", "true")
+        ).andExpect(status().isOk()).andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).isNotNull().isEmpty();
+    }
+
     @Test
     public void getEmployees_should_returnNullWhenCompanyDoesNotExist() throws Exception {
 
+        when(this.companyService.getEmployees(COMPANY_ID)).thenReturn(null);
+
         MvcResult mvcResult = this.mvc.perform(
                 get("/company/" + COMPANY_ID + "/people")
         ).andExpect(status().isOk()).andReturn();
@@ -238,7 +516,8 @@ public class CompanyControllerTest {
         company.addEmployee(person);
         person.setCompany(company);
 
-        when(this.companyService.addEmployee(COMPANY_ID, PERSON_ID)).thenReturn(company);
+        when(this.companyService.addEmployee(eq(COMPANY_ID.longValue()), eq(PERSON_ID.longValue()), any()))
+                .then(Converters.converting(company));
 
         MvcResult mvcResult = this.mvc.perform(
                 put("/company/" + COMPANY_ID + "/people/" + PERSON_ID)
@@ -282,7 +561,7 @@ public class CompanyControllerTest {
 
         ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
 
-        doNothing().when(this.companyService).delete(captor.capture());
+        when(this.companyService.delete(captor.capture())).thenReturn(0);
 
         this.mvc.perform(
                 delete("/company/" + COMPANY_ID)
@@ -337,4 +616,37 @@ public class CompanyControllerTest {
 
         return person;
     }
+
+    private void mockEmployeeExport(boolean withAddresses, List<PersonAddressRow> rows) {
+        when(this.companyService.exists(COMPANY_ID)).thenReturn(true);
+
+        doAnswer(invocation -> {
+            Consumer<PersonAddressRow> consumer = invocation.getArgument(2);
+
+            rows.forEach(consumer);
+
+            return (long) rows.size();
+        }).when(this.companyService).exportEmployees(eq(COMPANY_ID), eq(withAddresses), any());
+    }
+
+    private static PersonAddressRow createRow(Person person) {
+        return new PersonAddressRow(person.getId(), person.getFirstname(), person.getLastname(), COMPANY_ID, 0L);
+    }
+
+    private static PersonAddressRow createRow(Person person, Address address) {
+        return new PersonAddressRow(
+                person.getId(),
+                person.getFirstname(),
+                person.getLastname(),
+                COMPANY_ID,
+                person.getId(),
+                address.getStreet(),
+                address.getStreetNumber(),
+                address.getZipCode(),
+                address.getCity(),
+                address.getCountry(),
+                0L,
+                0L
+        );
+    }
 }
@@ -0,0 +1,251 @@
+package com.springcontext.springrestapi.controllers;
+
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.AddressRepository;
+import com.springcontext.springrestapi.repositories.CompanyRepository;
+import com.springcontext.springrestapi.repositories.PersonRepository;
+import com.springcontext.springrestapi.services.PersonService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.springcontext.springrestapi.metrics.SqlStatements.countDuring;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements the endpoints issue against the real repositories, with cold caches, so that
+ * an N+1 query shows up as a failing count instead of a slow endpoint.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@SpringBootTest
+public class ControllerStatementCountTest {
+
+    private static final String COMPANY_NAME = "Spring-Context";
+    private static final int EMPLOYEES = 5;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mvc;
+
+    private Company company;
+
+    private Person person;
+
+    private List<Long> personIds;
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+
+        Company company = new Company();
+
+        company.setName(COMPANY_NAME);
+
+        this.company = this.companyRepository.save(company);
+        this.personIds = new ArrayList<>();
+
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Person person = new Person();
+
+            person.setFirstname("Firstname " + i);
+            person.setLastname("Lastname " + i);
+            person.setCompany(this.company);
+            person.addAddress(this.createAddress(i));
+
+            this.person = this.personService.create(person);
+            this.personIds.add(this.person.getId());
+        }
+
+        this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @After
+    public void tearDown() {
+        this.personRepository.deleteAll();
+        this.addressRepository.deleteAll();
+        this.companyRepository.deleteAll();
+    }
+
+    @Test
+    public void getPerson_should_issueOneStatement() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/person/" + this.person.getId()))
+                .andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    @Test
+    public void getPersonWithAddresses_should_issueOneStatement() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/person/" + this.person.getId() + "?expand=addresses"))
+                .andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    @Test
+    public void getPeopleById_should_issueOneStatementWhateverTheIdCount() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(this.multiGet("/person/_mget"))
+                .andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    @Test
+    public void getPeopleByIdWithAddresses_should_issueOneStatementWhateverTheIdCount() throws Exception {
+
+        List<Person> people = new ArrayList<>();
+
+        for (int i = EMPLOYEES; i < MultiGet.MAX_IDS; i++) {
+            Person person = new Person();
+
+            person.setFirstname("Firstname " + i);
+            person.setLastname("Lastname " + i);
+            person.addAddress(this.createAddress(i));
+
+            people.add(person);
+        }
+
+        this.personService.createAll(people).forEach(person -> this.personIds.add(person.getId()));
+        this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        assertThat(countDuring(() -> this.mvc.perform(this.multiGet("/person/_mget?expand=addresses"))
+                .andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    /**
+     * The page sizes are below, at and past the people of the city, the maximum page size leaving one person out to
+     * only tell that a next page exists.
+     */
+    @Test
+    public void getPeopleByCity_should_issueTheSameStatementsWhateverThePageSize() throws Exception {
+
+        for (int i = EMPLOYEES; i <= Pagination.MAX_PAGE_SIZE; i++) {
+            Person person = new Person();
+
+            person.setFirstname("Firstname " + i);
+            person.setLastname("Lastname " + i);
+            person.addAddress(this.createAddress(i));
+
+            this.personService.create(person);
+        }
+
+        for (String size : new String[]{"" + Pagination.DEFAULT_PAGE_SIZE, "37", "" + Pagination.MAX_PAGE_SIZE}) {
+            this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+            assertThat(countDuring(() -> this.mvc.perform(get("/person?city=Paris&expand=addresses&size=" + size))
+                    .andExpect(status().isOk()))).as("size " + size).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void getPeopleByCity_should_notLoadTheAddressesUnlessExpanded() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/person?city=Paris"))
+                .andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    /**
+     * The native search query reads the people only, their company being the second statement.
+     */
+    @Test
+    public void searchPeople_should_notLoadTheAddressesUnlessExpanded() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/person/search?q=Lastname"))
+                .andExpect(status().isOk()))).isEqualTo(2);
+    }
+
+    @Test
+    public void countPeopleByCity_should_issueOneStatement() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/person/count/city?country=France"))
+                .andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    @Test
+    public void getEmployees_should_issueTheSameStatementsWhateverTheEmployeeCount() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/company/" + this.company.getId() + "/people"))
+                .andExpect(status().isOk()))).isEqualTo(2);
+    }
+
+    @Test
+    public void getEmployeesWithAddresses_should_issueTheSameStatementsWhateverTheEmployeeCount() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(get("/company/" + this.company.getId() + "/people?expand=addresses"))
+                .andExpect(status().isOk()))).isEqualTo(2);
+    }
+
+    @Test
+    public void deleteCompany_should_issueTheSameStatementsWhateverTheEmployeeCount() throws Exception {
+        assertThat(countDuring(() -> this.mvc.perform(delete("/company/" + this.company.getId()))
+                .andExpect(status().isOk()))).isEqualTo(2);
+    }
+
+    /**
+     * The export body is written by another thread, so its statements are counted by Hibernate rather than on the
+     * thread of the test.
+     */
+    @Test
+    public void export_should_issueOneStatementWhateverThePeopleCount() throws Exception {
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        MvcResult mvcResult = this.mvc.perform(get("/person/export")).andExpect(request().asyncStarted()).andReturn();
+
+        this.mvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+
+        assertThat(mvcResult.getResponse().getContentAsString().split("\n")).hasSize(EMPLOYEES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private MockHttpServletRequestBuilder multiGet(String path) {
+        String ids = this.personIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        return post(path).contentType(MediaType.APPLICATION_JSON).content("{\"ids\": [" + ids + "]}");
+    }
+
+    private Address createAddress(int number) {
+        Address address = new Address();
+
+        address.setStreet("Street");
+        address.setStreetNumber(number);
+        address.setZipCode("75000");
+        address.setCity("Paris");
+        address.setCountry("France");
+
+        return address;
+    }
+}
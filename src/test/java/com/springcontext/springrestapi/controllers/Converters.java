@@ -0,0 +1,50 @@
+package com.springcontext.springrestapi.controllers;
+
+import org.mockito.stubbing.Answer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mockito answers for the service methods that take a converter as their last argument, applying it to the
+ * stubbed entities the way the service would inside its transaction.
+ */
+final class Converters {
+
+    private Converters() {
+    }
+
+    static <E> Answer<Object> converting(E entity) {
+        return invocation -> Converters.<E>converter(invocation.getArguments()).apply(entity);
+    }
+
+    static <E> Answer<Object> convertingAll(List<E> entities) {
+        return invocation -> entities.stream()
+                .map(Converters.<E>converter(invocation.getArguments()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Converts the entities into a slice telling whether a next page exists.
+     */
+    static <E> Answer<Object> slicing(List<E> entities, boolean hasNext) {
+        return invocation -> new SliceImpl<>(
+                entities.stream().map(Converters.<E>converter(invocation.getArguments())).collect(Collectors.toList()),
+                PageRequest.of(0, entities.size()),
+                hasNext
+        );
+    }
+
+    static <E> Answer<Object> convertingById(List<E> entities, Function<E, Long> idExtractor) {
+        return invocation -> entities.stream()
+                .collect(Collectors.toMap(idExtractor, Converters.<E>converter(invocation.getArguments())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Function<E, ?> converter(Object[] arguments) {
+        return (Function<E, ?>) arguments[arguments.length - 1];
+    }
+}
@@ -1,11 +1,20 @@
 package com.springcontext.springrestapi.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.springcontext.springrestapi.controllers.dto.address.AddressDto;
+import com.springcontext.springrestapi.controllers.dto.bulk.BulkResponseDto;
+import com.springcontext.springrestapi.controllers.dto.location.LocationCountDto;
+import com.springcontext.springrestapi.controllers.dto.mget.MultiGetResponseDto;
+import com.springcontext.springrestapi.controllers.dto.page.PageResponseDto;
 import com.springcontext.springrestapi.controllers.dto.person.PersonRequestDto;
 import com.springcontext.springrestapi.controllers.dto.person.PersonResponseDto;
 import com.springcontext.springrestapi.entities.Address;
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.LocationCount;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import com.springcontext.springrestapi.services.PersonService;
 import org.junit.Before;
 import org.junit.Test;
@@ -14,8 +23,10 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,14 +35,28 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -45,6 +70,11 @@ public class PersonControllerTest {
     private static final Long PERSON_ID = 1L;
     private static final String FIRSTNAME = "John";
     private static final String LASTNAME = "Doe";
+    private static final Long VERSION = 3L;
+
+    private static final Long PERSON_ID_2 = 2L;
+    private static final String FIRSTNAME_2 = "John_2";
+    private static final String LASTNAME_2 = "Doe_2";
 
     /* Address test values */
 
@@ -110,6 +140,485 @@ public class PersonControllerTest {
         ).andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void createAll_should_reportCreatedAndInvalidPeople() throws Exception {
+
+        AddressDto addressDto = new AddressDto();
+
+        addressDto.setCountry(COUNTRY);
+        addressDto.setCity(CITY);
+        addressDto.setStreet(STREET);
+        addressDto.setStreetNumber(STREET_NUMBER);
+        addressDto.setZipCode(ZIP_CODE);
+
+        PersonRequestDto valid = new PersonRequestDto();
+
+        valid.setFirstname(FIRSTNAME);
+        valid.setLastname(LASTNAME);
+        valid.setAddresses(Arrays.asList(addressDto));
+
+        PersonRequestDto invalid = new PersonRequestDto();
+
+        invalid.setFirstname(FIRSTNAME_2);
+
+        when(this.personService.createAll(any())).thenAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+
+            assertThat(people).hasSize(1);
+            assertThat(people.get(0).getAddresses()).hasSize(1);
+
+            people.get(0).setId(PERSON_ID);
+
+            return people;
+        });
+
+        MvcResult mvcResult = this.mvc.perform(
+                post("/person/bulk")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.objectMapper.writeValueAsString(Arrays.asList(valid, invalid)))
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        BulkResponseDto bulkResponseDto = this.objectMapper.readValue(response, BulkResponseDto.class);
+
+        assertThat(bulkResponseDto.getCreated()).isEqualTo(1);
+        assertThat(bulkResponseDto.getFailed()).isEqualTo(1);
+        assertThat(bulkResponseDto.getItems()).isNotNull().hasSize(2);
+        assertThat(bulkResponseDto.getItems().get(0).getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(bulkResponseDto.getItems().get(0).getError()).isNull();
+        assertThat(bulkResponseDto.getItems().get(1).getId()).isNull();
+        assertThat(bulkResponseDto.getItems().get(1).getError()).isNotNull();
+    }
+
+    @Test
+    public void createAll_should_onlyFailThePeopleThatCannotBeSaved() throws Exception {
+
+        AddressDto incompleteAddress = new AddressDto();
+
+        incompleteAddress.setCity(CITY);
+
+        PersonRequestDto valid = new PersonRequestDto();
+
+        valid.setFirstname(FIRSTNAME);
+        valid.setLastname(LASTNAME);
+
+        PersonRequestDto unsavable = new PersonRequestDto();
+
+        unsavable.setFirstname(FIRSTNAME_2);
+        unsavable.setLastname(LASTNAME_2);
+
+        PersonRequestDto invalid = new PersonRequestDto();
+
+        invalid.setFirstname(FIRSTNAME);
+        invalid.setLastname(LASTNAME);
+        invalid.setAddresses(Arrays.asList(incompleteAddress));
+
+        when(this.personService.createAll(any())).thenAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+
+            if (people.stream().anyMatch(person -> FIRSTNAME_2.equals(person.getFirstname()))) {
+                throw new DataIntegrityViolationException("Value too long");
+            }
+
+            people.forEach(person -> person.setId(PERSON_ID));
+
+            return people;
+        });
+
+        MvcResult mvcResult = this.mvc.perform(
+                post("/person/bulk")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.objectMapper.writeValueAsString(Arrays.asList(valid, unsavable, invalid)))
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        BulkResponseDto bulkResponseDto = this.objectMapper.readValue(response, BulkResponseDto.class);
+
+        assertThat(bulkResponseDto.getCreated()).isEqualTo(1);
+        assertThat(bulkResponseDto.getFailed()).isEqualTo(2);
+        assertThat(bulkResponseDto.getItems().get(0).getId()).isEqualTo(PERSON_ID);
+        assertThat(bulkResponseDto.getItems().get(0).getError()).isNull();
+        assertThat(bulkResponseDto.getItems().get(1).getId()).isNull();
+        assertThat(bulkResponseDto.getItems().get(1).getError()).isNotNull();
+        assertThat(bulkResponseDto.getItems().get(2).getId()).isNull();
+        assertThat(bulkResponseDto.getItems().get(2).getError()).contains("address");
+    }
+
+    @Test
+    public void getPeople_should_returnPageWithNextCursor() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.getPage(eq(0L), eq(1), any())).then(Converters.slicing(Arrays.asList(person), true));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person").param("size", "1")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<PersonResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).isNotNull().hasSize(1);
+        assertThat(page.getItems().get(0).getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(page.getItems().get(0).getFirstname()).isNotNull().isEqualTo(FIRSTNAME);
+        assertThat(page.getNext()).isNotNull().isEqualTo(Pagination.encodeCursor(PERSON_ID));
+    }
+
+    @Test
+    public void getPeople_should_onlyReturnTheAddressesWhenExpanded() throws Exception {
+
+        Address address = new Address();
+
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+        address.setZipCode(ZIP_CODE);
+        address.setCity(CITY);
+        address.setCountry(COUNTRY);
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+        person.addAddress(address);
+
+        when(this.personService.getPage(eq(0L), eq(Pagination.DEFAULT_PAGE_SIZE), any()))
+                .then(Converters.slicing(Arrays.asList(person), false));
+
+        for (boolean expanded : new boolean[]{false, true}) {
+            MvcResult mvcResult = this.mvc.perform(
+                    expanded ? get("/person").param("expand", PersonController.EXPAND_ADDRESSES) : get("/person")
+            ).andExpect(status().isOk()).andReturn();
+
+            PageResponseDto<PersonResponseDto> page = this.objectMapper.readValue(
+                    mvcResult.getResponse().getContentAsString(),
+                    new TypeReference<PageResponseDto<PersonResponseDto>>(){}
+            );
+
+            if (expanded) {
+                assertThat(page.getItems().get(0).getAddresses()).extracting(AddressDto::getCity).containsExactly(CITY);
+            } else {
+                assertThat(page.getItems().get(0).getAddresses()).isNull();
+            }
+        }
+    }
+
+    @Test
+    public void getPeople_should_resumeFromCursorAndBoundPageSize() throws Exception {
+
+        Person person2 = new Person();
+
+        person2.setId(PERSON_ID_2);
+        person2.setFirstname(FIRSTNAME_2);
+        person2.setLastname(LASTNAME_2);
+
+        when(this.personService.getPage(eq(PERSON_ID.longValue()), eq(Pagination.MAX_PAGE_SIZE), any()))
+                .then(Converters.slicing(Arrays.asList(person2), false));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person")
+                        .param("cursor", Pagination.encodeCursor(PERSON_ID))
+                        .param("size", "100000")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<PersonResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).isNotNull().hasSize(1);
+        assertThat(page.getItems().get(0).getId()).isNotNull().isEqualTo(PERSON_ID_2);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    public void getPeople_should_returnNullWhenCursorIsInvalid() throws Exception {
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person").param("cursor", "not-a-cursor")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        assertThat(response).isNotNull().isEmpty();
+    }
+
+    @Test
+    public void export_should_streamOnePersonPerLine() throws Exception {
+
+        doAnswer(invocation -> {
+            Consumer<PersonAddressRow> consumer = invocation.getArgument(0);
+
+            consumer.accept(new PersonAddressRow(
+                    PERSON_ID, FIRSTNAME, LASTNAME, null, 1L, STREET, STREET_NUMBER, ZIP_CODE, CITY, COUNTRY, 0L, 0L
+            ));
+            consumer.accept(new PersonAddressRow(
+                    PERSON_ID, FIRSTNAME, LASTNAME, null, 2L, STREET, 1, ZIP_CODE, CITY, COUNTRY, 0L, 0L
+            ));
+            consumer.accept(new PersonAddressRow(
+                    PERSON_ID_2, FIRSTNAME_2, LASTNAME_2, null, null, null, null, null, null, null, 0L, null
+            ));
+
+            return 3L;
+        }).when(this.personService).exportAll(any());
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/export")
+        ).andExpect(request().asyncStarted()).andReturn();
+
+        this.mvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+
+        PersonResponseDto first = this.objectMapper.readValue(lines[0], PersonResponseDto.class);
+        PersonResponseDto second = this.objectMapper.readValue(lines[1], PersonResponseDto.class);
+
+        assertThat(first.getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(first.getFirstname()).isNotNull().isEqualTo(FIRSTNAME);
+        assertThat(first.getAddresses()).isNotNull().hasSize(2);
+        assertThat(first.getAddresses().get(0).getStreetNumber()).isEqualTo(STREET_NUMBER);
+        assertThat(second.getId()).isNotNull().isEqualTo(PERSON_ID_2);
+        assertThat(second.getLastname()).isNotNull().isEqualTo(LASTNAME_2);
+        assertThat(second.getAddresses()).isNotNull().isEmpty();
+    }
+
+    @Test
+    public void getPeople_should_filterByLocation() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.getPageByLocation(eq(ZIP_CODE), isNull(), eq(COUNTRY), eq(0L), eq(1), any()))
+                .then(Converters.slicing(Arrays.asList(person), false));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person").param("size", "1").param("zipCode", ZIP_CODE).param("country", COUNTRY)
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<PersonResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).isNotNull().hasSize(1);
+        assertThat(page.getItems().get(0).getId()).isNotNull().isEqualTo(PERSON_ID);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    public void countPeopleByCity_should_returnTheCountsOfTheCountry() throws Exception {
+
+        when(this.personService.countByCity(COUNTRY)).thenReturn(Arrays.asList(
+                new LocationCount(COUNTRY, "Toronto", 2L),
+                new LocationCount(COUNTRY, CITY, 3L)
+        ));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/count/city").param("country", COUNTRY)
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        List<LocationCountDto> counts = this.objectMapper.readValue(
+                response,
+                new TypeReference<List<LocationCountDto>>(){}
+        );
+
+        assertThat(counts).isNotNull().hasSize(2);
+        assertThat(counts.get(1).getCountry()).isNotNull().isEqualTo(COUNTRY);
+        assertThat(counts.get(1).getCity()).isNotNull().isEqualTo(CITY);
+        assertThat(counts.get(1).getPeople()).isNotNull().isEqualTo(3L);
+    }
+
+    @Test
+    public void searchPeople_should_returnMatchesWithNextCursor() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.search(eq("Do"), eq(""), eq(""), eq(0L), eq(1), any()))
+                .then(Converters.slicing(Arrays.asList(person), true));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/search").param("q", "Do").param("size", "1")
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<PersonResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).isNotNull().hasSize(1);
+        assertThat(page.getItems().get(0).getLastname()).isNotNull().isEqualTo(LASTNAME);
+        assertThat(page.getItems().get(0).getAddresses()).isNull();
+        assertThat(page.getNext()).isNotNull()
+                .isEqualTo(Pagination.encodeCursor(Arrays.asList(LASTNAME, FIRSTNAME), PERSON_ID));
+    }
+
+    @Test
+    public void searchPeople_should_resumeAfterTheNamesOfTheCursor() throws Exception {
+
+        Person person2 = new Person();
+
+        person2.setId(PERSON_ID_2);
+        person2.setFirstname(FIRSTNAME_2);
+        person2.setLastname(LASTNAME_2);
+
+        when(this.personService.search(eq("Do"), eq(LASTNAME), eq(FIRSTNAME), eq(PERSON_ID.longValue()), eq(1), any()))
+                .then(Converters.slicing(Arrays.asList(person2), false));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/search")
+                        .param("q", "Do")
+                        .param("size", "1")
+                        .param("cursor", Pagination.encodeCursor(Arrays.asList(LASTNAME, FIRSTNAME), PERSON_ID))
+        ).andExpect(status().isOk()).andReturn();
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PageResponseDto<PersonResponseDto> page = this.objectMapper.readValue(
+                response,
+                new TypeReference<PageResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(page.getItems()).extracting(PersonResponseDto::getId).containsExactly(PERSON_ID_2);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    public void searchPeople_should_returnNullWithAnIdCursor() throws Exception {
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/search").param("q", "Do").param("cursor", Pagination.encodeCursor(PERSON_ID))
+        ).andExpect(status().isOk()).andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).isNotNull().isEmpty();
+    }
+
+    @Test
+    public void searchPeople_should_returnNullWithoutQuery() throws Exception {
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/search").param("q", " ")
+        ).andExpect(status().isOk()).andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).isNotNull().isEmpty();
+    }
+
+    @Test
+    public void getPeopleById_should_returnPeopleInRequestOrderAndMissingIds() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        Person person2 = new Person();
+
+        person2.setId(PERSON_ID_2);
+        person2.setFirstname(FIRSTNAME_2);
+        person2.setLastname(LASTNAME_2);
+
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+
+        when(this.personService.getAllById(ids.capture(), any()))
+                .then(Converters.convertingById(Arrays.asList(person, person2), Person::getId));
+
+        MvcResult mvcResult = this.mvc.perform(
+                post("/person/_mget")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"ids\": [" + PERSON_ID_2 + ", 42, " + PERSON_ID + ", " + PERSON_ID_2 + "]}")
+        ).andExpect(status().isOk()).andReturn();
+
+        MultiGetResponseDto<PersonResponseDto> response = this.objectMapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                new TypeReference<MultiGetResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(ids.getValue()).containsExactly(PERSON_ID_2, 42L, PERSON_ID);
+        assertThat(response.getItems()).extracting(PersonResponseDto::getId).containsExactly(PERSON_ID_2, PERSON_ID);
+        assertThat(response.getItems().get(0).getAddresses()).isNull();
+        assertThat(response.getMissing()).containsExactly(42L);
+    }
+
+    @Test
+    public void getPeopleById_should_loadTheAddressesWithThePeopleWhenExpanded() throws Exception {
+
+        Address address = new Address();
+
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+        address.setZipCode(ZIP_CODE);
+        address.setCity(CITY);
+        address.setCountry(COUNTRY);
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+        person.addAddress(address);
+
+        when(this.personService.getAllByIdWithAddresses(any(), any()))
+                .then(Converters.convertingById(Collections.singletonList(person), Person::getId));
+
+        MvcResult mvcResult = this.mvc.perform(
+                post("/person/_mget?expand=addresses")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"ids\": [" + PERSON_ID + "]}")
+        ).andExpect(status().isOk()).andReturn();
+
+        MultiGetResponseDto<PersonResponseDto> response = this.objectMapper.readValue(
+                mvcResult.getResponse().getContentAsString(),
+                new TypeReference<MultiGetResponseDto<PersonResponseDto>>(){}
+        );
+
+        assertThat(response.getItems()).hasSize(1);
+        assertThat(response.getItems().get(0).getAddresses()).extracting(AddressDto::getCity).containsExactly(CITY);
+        verify(this.personService, never()).getAllById(any(), any());
+    }
+
+    @Test
+    public void getPeopleById_should_returnNullWhenThereAreTooManyIds() throws Exception {
+
+        String ids = LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        MvcResult mvcResult = this.mvc.perform(
+                post("/person/_mget")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"ids\": [" + ids + "]}")
+        ).andExpect(status().isOk()).andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).isEmpty();
+    }
+
     @Test
     public void getPerson_should_returnExistingPersonWhenIDExists() throws Exception {
 
@@ -119,7 +628,7 @@ public class PersonControllerTest {
         person.setFirstname(FIRSTNAME);
         person.setLastname(LASTNAME);
 
-        when(this.personService.getById(PERSON_ID)).thenReturn(person);
+        when(this.personService.getById(eq(PERSON_ID.longValue()), any())).then(Converters.converting(person));
 
         PersonRequestDto personRequestDto = new PersonRequestDto();
 
@@ -137,6 +646,157 @@ public class PersonControllerTest {
         assertThat(personResponseDto).isNotNull();
         assertThat(personResponseDto.getFirstname()).isNotNull().isEqualTo(FIRSTNAME);
         assertThat(personResponseDto.getLastname()).isNotNull().isEqualTo(LASTNAME);
+        assertThat(personResponseDto.getAddresses()).isNull();
+    }
+
+    @Test
+    public void getPerson_should_negotiateSmileAndCbor() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.getById(eq(PERSON_ID.longValue()), any())).then(Converters.converting(person));
+
+        ObjectMapper[] mappers = {
+                new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory())
+        };
+        MediaType[] mediaTypes = {
+                MediaTypes.APPLICATION_SMILE, MediaTypes.APPLICATION_CBOR
+        };
+
+        for (int i = 0; i < mediaTypes.length; i++) {
+            MvcResult mvcResult = this.mvc.perform(
+                    get("/person/" + PERSON_ID).accept(mediaTypes[i])
+            ).andExpect(status().isOk()).andReturn();
+
+            assertThat(mediaTypes[i].isCompatibleWith(
+                    MediaType.valueOf(mvcResult.getResponse().getContentType())
+            )).isTrue();
+
+            PersonResponseDto personResponseDto = mappers[i].readValue(
+                    mvcResult.getResponse().getContentAsByteArray(), PersonResponseDto.class
+            );
+
+            assertThat(personResponseDto.getId()).isEqualTo(PERSON_ID);
+            assertThat(personResponseDto.getFirstname()).isEqualTo(FIRSTNAME);
+            assertThat(personResponseDto.getLastname()).isEqualTo(LASTNAME);
+        }
+    }
+
+    @Test
+    public void getPerson_should_refuseUnsupportedMediaTypes() throws Exception {
+
+        this.mvc.perform(get("/person/" + PERSON_ID).accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    public void getPerson_should_returnNotModifiedWhenTheETagMatches() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setVersion(VERSION);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.getById(eq(PERSON_ID.longValue()), any())).then(Converters.converting(person));
+
+        this.mvc.perform(get("/person/" + PERSON_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + VERSION + "\""));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/" + PERSON_ID).header(HttpHeaders.IF_NONE_MATCH, "\"" + VERSION + "\"")
+        ).andExpect(status().isNotModified()).andReturn();
+
+        assertThat(mvcResult.getResponse().getContentAsString()).isNotNull().isEmpty();
+    }
+
+    @Test
+    public void getPerson_should_tagEveryRepresentationDifferently() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setVersion(VERSION);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.getById(eq(PERSON_ID.longValue()), any())).then(Converters.converting(person));
+
+        List<String> etags = new ArrayList<>();
+
+        for (MediaType mediaType : Arrays.asList(MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_SMILE)) {
+            for (String acceptEncoding : Arrays.asList("identity", "gzip, deflate")) {
+                MvcResult mvcResult = this.mvc.perform(
+                        get("/person/" + PERSON_ID)
+                                .accept(mediaType)
+                                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                ).andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                        .andReturn();
+
+                String etag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+                assertThat(PersonController.parseETag(etag)).isEqualTo(VERSION);
+
+                // the tag of another representation does not revalidate this one
+                for (String otherEtag : etags) {
+                    this.mvc.perform(
+                            get("/person/" + PERSON_ID)
+                                    .accept(mediaType)
+                                    .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                                    .header(HttpHeaders.IF_NONE_MATCH, otherEtag)
+                    ).andExpect(status().isOk());
+                }
+
+                etags.add(etag);
+            }
+        }
+
+        assertThat(etags).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void getPerson_should_returnAddressesWhenExpanded() throws Exception {
+
+        Address address = new Address();
+
+        address.setCity(CITY);
+        address.setCountry(COUNTRY);
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+        address.setZipCode(ZIP_CODE);
+        address.setVersion(0L);
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setVersion(VERSION);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+        person.addAddress(address);
+
+        when(this.personService.getByIdWithAddresses(eq(PERSON_ID.longValue()), any())).then(Converters.converting(person));
+
+        MvcResult mvcResult = this.mvc.perform(
+                get("/person/" + PERSON_ID).param("expand", PersonController.EXPAND_ADDRESSES)
+        ).andExpect(status().isOk()).andReturn();
+
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + VERSION + "-0\"");
+
+        String response = mvcResult.getResponse().getContentAsString();
+
+        PersonResponseDto personResponseDto = this.objectMapper.readValue(response, PersonResponseDto.class);
+
+        assertThat(personResponseDto).isNotNull();
+        assertThat(personResponseDto.getFirstname()).isNotNull().isEqualTo(FIRSTNAME);
+        assertThat(personResponseDto.getAddresses()).isNotNull().hasSize(1);
+        assertThat(personResponseDto.getAddresses().get(0).getCity()).isNotNull().isEqualTo(CITY);
     }
 
     @Test
@@ -161,24 +821,30 @@ public class PersonControllerTest {
         address.setStreet(STREET);
         address.setStreetNumber(STREET_NUMBER);
         address.setZipCode(ZIP_CODE);
+        address.setVersion(0L);
 
         Person person = new Person();
 
         person.setId(PERSON_ID);
+        person.setVersion(VERSION);
         person.setFirstname(FIRSTNAME);
         person.setLastname(LASTNAME);
         person.addAddress(address);
 
-        when(this.personService.addAddress(eq(PERSON_ID), any())).thenReturn(person);
+        when(this.personService.addAddress(eq(PERSON_ID.longValue()), any(), isNull(), any())).then(Converters.converting(person));
 
         AddressDto addressDto = PersonController.convertModel(address);
 
         MvcResult mvcResult = this.mvc.perform(
                 put("/person/" + PERSON_ID)
+                        .param("expand", PersonController.EXPAND_ADDRESSES)
                         .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                         .content(this.objectMapper.writeValueAsString(addressDto))
         ).andExpect(status().isOk()).andReturn();
 
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.ETAG))
+                .isEqualTo("\"" + PersonController.version(person, true) + "\"");
+
         String response = mvcResult.getResponse().getContentAsString();
 
         PersonResponseDto personResponseDto = this.objectMapper.readValue(response, PersonResponseDto.class);
@@ -196,6 +862,108 @@ public class PersonControllerTest {
         assertThat(responseAddress).isNotNull().isEqualToComparingFieldByField(addressDto);
     }
 
+    @Test
+    public void addAddress_should_expectTheVersionOfTheIfMatchETag() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setVersion(VERSION + 1);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        when(this.personService.addAddress(eq(PERSON_ID.longValue()), any(), eq(Collections.singleton(VERSION)), any()))
+                .then(Converters.converting(person));
+
+        this.mvc.perform(
+                put("/person/" + PERSON_ID)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.IF_MATCH, "\"" + VERSION + "\"")
+                        .content(this.objectMapper.writeValueAsString(new AddressDto()))
+        ).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"" + (VERSION + 1) + "\""));
+    }
+
+    @Test
+    public void addAddress_should_tagTheRepresentationItReturns() throws Exception {
+
+        Address address = new Address();
+
+        address.setVersion(3L);
+        address.setCity(CITY);
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setVersion(VERSION);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+        person.addAddress(address);
+
+        when(this.personService.addAddress(eq(PERSON_ID.longValue()), any(), isNull(), any()))
+                .then(Converters.converting(person));
+
+        MvcResult mvcResult = this.mvc.perform(
+                put("/person/" + PERSON_ID)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.objectMapper.writeValueAsString(new AddressDto()))
+        ).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"" + VERSION + "\"")).andReturn();
+
+        PersonResponseDto response =
+                this.objectMapper.readValue(mvcResult.getResponse().getContentAsString(), PersonResponseDto.class);
+
+        assertThat(response.getAddresses()).isNull();
+    }
+
+    @Test
+    public void addAddress_should_expectAnyOfTheStrongETagsListedInIfMatch() throws Exception {
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+        person.setVersion(VERSION + 1);
+
+        when(this.personService.addAddress(
+                eq(PERSON_ID.longValue()), any(), eq(new HashSet<>(Arrays.asList(VERSION, VERSION + 2))), any()
+        )).then(Converters.converting(person));
+
+        String ifMatch = String.format("\"%d\", W/\"%d\",\"%d\"", VERSION, VERSION + 1, VERSION + 2);
+
+        this.mvc.perform(
+                put("/person/" + PERSON_ID)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.IF_MATCH, ifMatch)
+                        .content(this.objectMapper.writeValueAsString(new AddressDto()))
+        ).andExpect(status().isOk());
+
+        this.mvc.perform(
+                put("/person/" + PERSON_ID)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + VERSION + "\", \"not-a-version\"")
+                        .content(this.objectMapper.writeValueAsString(new AddressDto()))
+        ).andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void addAddress_should_failThePreconditionWhenThePersonChanged() throws Exception {
+
+        when(this.personService.addAddress(eq(PERSON_ID.longValue()), any(), eq(Collections.singleton(VERSION)), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Person.class, PERSON_ID));
+
+        this.mvc.perform(
+                put("/person/" + PERSON_ID)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.IF_MATCH, "\"" + VERSION + "\"")
+                        .content(this.objectMapper.writeValueAsString(new AddressDto()))
+        ).andExpect(status().isPreconditionFailed());
+
+        this.mvc.perform(
+                put("/person/" + PERSON_ID)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + VERSION + "\"")
+                        .content(this.objectMapper.writeValueAsString(new AddressDto()))
+        ).andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void addAddress_should_returnNullWhenPersonDoesNotExist() throws Exception {
 
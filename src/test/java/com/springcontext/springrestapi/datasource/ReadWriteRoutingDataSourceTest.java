@@ -0,0 +1,95 @@
+package com.springcontext.springrestapi.datasource;
+
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.services.CompanyService;
+import com.springcontext.springrestapi.services.PersonService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application against two H2 databases, a primary and a replica holding the same schema but different
+ * rows, so that every read shows which one served it.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadWriteRoutingDataSourceTest.PRIMARY_URL,
+        "datasource.replica.jdbc-url=" + ReadWriteRoutingDataSourceTest.REPLICA_URL,
+        "datasource.replica.username=sa",
+        "datasource.replica.password=sa"
+})
+public class ReadWriteRoutingDataSourceTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private static final long PRIMARY_ONLY_ID = 1_000_001L;
+    private static final long REPLICA_ONLY_ID = 1_000_002L;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @Before
+    public void setUp() {
+        this.primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", "sa"));
+        this.replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "sa"));
+
+        if (this.replica.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'PEOPLE'", Integer.class) == 0) {
+            List<String> schema = this.primary.queryForList("SCRIPT NODATA", String.class);
+
+            schema.forEach(this.replica::execute);
+        }
+
+        this.primary.update("DELETE FROM people WHERE id IN (?, ?)", PRIMARY_ONLY_ID, REPLICA_ONLY_ID);
+        this.replica.update("DELETE FROM people WHERE id IN (?, ?)", PRIMARY_ONLY_ID, REPLICA_ONLY_ID);
+
+        this.primary.update("INSERT INTO people (id, firstname, lastname) VALUES (?, 'Primary', 'Only')", PRIMARY_ONLY_ID);
+        this.replica.update("INSERT INTO people (id, firstname, lastname) VALUES (?, 'Replica', 'Only')", REPLICA_ONLY_ID);
+    }
+
+    @Test
+    public void readOnlyTransactions_should_beServedByTheReplica() {
+        assertThat(this.personService.getById(REPLICA_ONLY_ID)).isNotNull();
+        assertThat(this.personService.getById(PRIMARY_ONLY_ID)).isNull();
+
+        assertThat(this.personService.getPage(PRIMARY_ONLY_ID - 1, 10, Person::getId).getContent())
+                .containsExactly(REPLICA_ONLY_ID);
+    }
+
+    @Test
+    public void writes_should_goToThePrimary() {
+
+        Company company = new Company();
+
+        company.setName("Spring-Context");
+
+        long id = this.companyService.create(company).getId();
+
+        assertThat(this.primary.queryForObject("SELECT COUNT(*) FROM companies WHERE id = ?", Integer.class, id))
+                .isEqualTo(1);
+        assertThat(this.replica.queryForObject("SELECT COUNT(*) FROM companies WHERE id = ?", Integer.class, id))
+                .isEqualTo(0);
+
+        assertThat(this.companyService.exists(id)).isFalse();
+
+        this.primary.update("DELETE FROM companies WHERE id = ?", id);
+    }
+}
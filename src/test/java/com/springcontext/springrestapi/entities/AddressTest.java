@@ -0,0 +1,31 @@
+package com.springcontext.springrestapi.entities;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AddressTest {
+
+    @Test
+    public void equals_should_matchTheUniqueLocationIndex() {
+
+        Address address = createAddress("Paris");
+        Address sameLocation = createAddress("paris ");
+
+        assertThat(address).isEqualTo(sameLocation);
+        assertThat(address.hashCode()).isEqualTo(sameLocation.hashCode());
+        assertThat(address).isNotEqualTo(createAddress("Lyon"));
+    }
+
+    private static Address createAddress(String city) {
+        Address address = new Address();
+
+        address.setStreet("Rue de Rivoli");
+        address.setStreetNumber(1);
+        address.setZipCode("75001");
+        address.setCity(city);
+        address.setCountry("France");
+
+        return address;
+    }
+}
@@ -0,0 +1,79 @@
+package com.springcontext.springrestapi.execution;
+
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.services.PersonService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@SpringBootTest(properties = {"execution.mode=async", "execution.threads=1", "execution.queue-capacity=0"})
+public class AsyncExecutionBoundTest {
+
+    private static final long PERSON_ID = 1L;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @MockBean
+    private PersonService personService;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    }
+
+    @Test
+    public void request_should_beRefusedWhenTheWorkersAreBusy() throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+
+        when(this.personService.getById(eq(PERSON_ID), any())).then(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.<Function<Person, ?>>getArgument(1).apply(person);
+        });
+
+        MvcResult busy = this.mvc.perform(get("/person/" + PERSON_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        started.await(10, TimeUnit.SECONDS);
+
+        this.mvc.perform(get("/person/" + PERSON_ID)).andExpect(status().isServiceUnavailable());
+
+        release.countDown();
+
+        this.mvc.perform(asyncDispatch(busy)).andExpect(status().isOk());
+        this.mvc.perform(get("/person/" + PERSON_ID)).andExpect(request().asyncStarted());
+    }
+}
@@ -0,0 +1,129 @@
+package com.springcontext.springrestapi.execution;
+
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.metrics.SqlStatementMetricsFilter;
+import com.springcontext.springrestapi.repositories.AddressRepository;
+import com.springcontext.springrestapi.repositories.PersonRepository;
+import com.springcontext.springrestapi.services.PersonService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@SpringBootTest(properties = "execution.mode=async")
+public class AsyncExecutionModeTest {
+
+    private static final String FIRSTNAME = "John";
+    private static final String LASTNAME = "Doe";
+    private static final String CITY = "Vancouver";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SqlStatementMetricsFilter filter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mvc;
+
+    private Person person;
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).addFilters(this.filter).build();
+
+        Address address = new Address();
+
+        address.setStreet("Main street");
+        address.setStreetNumber(1);
+        address.setZipCode("A0B 1C2");
+        address.setCity(CITY);
+        address.setCountry("Canada");
+
+        Person person = new Person();
+
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+        person.addAddress(address);
+
+        this.person = this.personService.create(person);
+
+        this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @After
+    public void tearDown() {
+        this.personRepository.deleteAll();
+        this.addressRepository.deleteAll();
+    }
+
+    @Test
+    public void getPerson_should_countTheStatementsOfTheWorkerThread() throws Exception {
+
+        MvcResult result = this.mvc.perform(get("/person/" + this.person.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastname").value(LASTNAME));
+
+        DistributionSummary statements = this.meterRegistry.find(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("uri", "/person/{id}")
+                .summary();
+
+        // recorded once, after the async dispatch, with the statements of the worker thread
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    public void getPeople_should_loadAddressesLazilyOnTheWorkerThread() throws Exception {
+
+        MvcResult result = this.mvc.perform(get("/person").param("expand", "addresses"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].addresses[0].city").value(CITY));
+    }
+}
@@ -0,0 +1,108 @@
+package com.springcontext.springrestapi.execution;
+
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.services.PersonService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@SpringBootTest(properties = {"execution.mode=async", "execution.threads=1", "execution.queue-capacity=1"})
+public class AsyncExecutionTimeoutTest {
+
+    private static final long PERSON_ID = 1L;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @MockBean
+    private PersonService personService;
+
+    private MockMvc mvc;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+
+        Person person = new Person();
+
+        person.setId(PERSON_ID);
+
+        when(this.personService.getById(eq(PERSON_ID), any())).then(invocation -> {
+            this.started.countDown();
+            this.release.await(10, TimeUnit.SECONDS);
+
+            return invocation.<Function<Person, ?>>getArgument(1).apply(person);
+        });
+    }
+
+    @Test
+    public void timeout_should_releaseTheSlotOfAQueuedRequest() throws Exception {
+
+        MvcResult running = this.mvc.perform(get("/person/" + PERSON_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.started.await(10, TimeUnit.SECONDS);
+
+        MvcResult queued = this.mvc.perform(get("/person/" + PERSON_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        AsyncExecutionTimeoutTest.timeOut(queued);
+
+        // the slot of the timed out request is free again, and the bound still holds
+        MvcResult replacement = this.mvc.perform(get("/person/" + PERSON_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mvc.perform(get("/person/" + PERSON_ID)).andExpect(status().isServiceUnavailable());
+
+        this.release.countDown();
+
+        this.mvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+        this.mvc.perform(asyncDispatch(replacement)).andExpect(status().isOk());
+    }
+
+    /**
+     * Times the request out the way the container does, then completes it after its error dispatch.
+     */
+    private static void timeOut(MvcResult result) throws Exception {
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        asyncContext.complete();
+    }
+}
@@ -0,0 +1,78 @@
+package com.springcontext.springrestapi.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.repositories.CompanyRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@SpringBootTest
+public class AccessLogFilterTest {
+
+    private static final String COMPANY_NAME = "Spring-Context";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private AccessLogFilter filter;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    private MockMvc mvc;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).addFilters(this.filter).build();
+
+        this.appender = new ListAppender<>();
+        this.appender.start();
+
+        ((Logger) LoggerFactory.getLogger(AccessLogFilter.LOGGER_NAME)).addAppender(this.appender);
+    }
+
+    @After
+    public void tearDown() {
+        ((Logger) LoggerFactory.getLogger(AccessLogFilter.LOGGER_NAME)).detachAppender(this.appender);
+    }
+
+    @Test
+    public void request_should_writeOneAccessLine() throws Exception {
+
+        Company company = new Company();
+
+        company.setName(COMPANY_NAME);
+
+        long id = this.companyRepository.save(company).getId();
+
+        this.mvc.perform(get("/company/" + id + "/people?expand=addresses")).andExpect(status().isOk());
+
+        assertThat(this.appender.list).hasSize(1);
+        assertThat(this.appender.list.get(0).getFormattedMessage())
+                .startsWith("method=GET uri=/company/" + id + "/people status=200 duration_ms=")
+                .endsWith(" sql_statements=2");
+
+        this.companyRepository.deleteById(id);
+    }
+}
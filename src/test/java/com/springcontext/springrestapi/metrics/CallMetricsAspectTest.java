@@ -0,0 +1,61 @@
+package com.springcontext.springrestapi.metrics;
+
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.services.CompanyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest
+public class CallMetricsAspectTest {
+
+    private static final long NOT_FOUND_ID = -1L;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void serviceCall_should_beTimedWithRepositoryCalls() {
+
+        long serviceCalls = this.count(CallMetricsAspect.SERVICE_METRIC_NAME, "CompanyService", "getById");
+        long repositoryCalls = this.count(CallMetricsAspect.REPOSITORY_METRIC_NAME, "CompanyRepository", "findById");
+
+        Company company = this.companyService.getById(NOT_FOUND_ID);
+
+        assertThat(company).isNull();
+        assertThat(this.count(CallMetricsAspect.SERVICE_METRIC_NAME, "CompanyService", "getById"))
+                .isEqualTo(serviceCalls + 1);
+        assertThat(this.count(CallMetricsAspect.REPOSITORY_METRIC_NAME, "CompanyRepository", "findById"))
+                .isEqualTo(repositoryCalls + 1);
+    }
+
+    @Test
+    public void hikariPool_should_reportConnectionWaitTime() {
+
+        this.companyService.getById(NOT_FOUND_ID);
+
+        assertThat(this.meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+    }
+
+    private long count(String name, String className, String method) {
+        Timer timer = this.meterRegistry.find(name)
+                .tag("class", className)
+                .tag("method", method)
+                .tag("exception", "none")
+                .timer();
+
+        return Objects.isNull(timer) ? 0 : timer.count();
+    }
+}
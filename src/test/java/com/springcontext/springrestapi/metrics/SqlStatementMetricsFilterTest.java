@@ -0,0 +1,124 @@
+package com.springcontext.springrestapi.metrics;
+
+import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.repositories.CompanyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebAppConfiguration
+@SpringBootTest
+public class SqlStatementMetricsFilterTest {
+
+    private static final String COMPANY_NAME = "Spring-Context";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SqlStatementMetricsFilter filter;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.context).addFilters(this.filter).build();
+    }
+
+    @Test
+    public void request_should_recordItsStatementCount() throws Exception {
+
+        Company company = new Company();
+
+        company.setName(COMPANY_NAME);
+
+        long id = this.companyRepository.save(company).getId();
+
+        this.mvc.perform(get("/company/" + id + "/people")).andExpect(status().isOk());
+
+        DistributionSummary statements = this.meterRegistry.find(SqlStatementMetricsFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/company/{id}/people")
+                .summary();
+
+        // company existence check and employee query
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+
+        this.companyRepository.deleteById(id);
+    }
+
+    @Test
+    public void request_should_beCountedWhenOverBudget() throws Exception {
+
+        MockMvc mvc = MockMvcBuilders.webAppContextSetup(this.context)
+                .addFilters(new SqlStatementMetricsFilter(this.meterRegistry, 0))
+                .build();
+
+        mvc.perform(get("/company")).andExpect(status().isOk());
+
+        Counter overBudget = this.meterRegistry.find(SqlStatementMetricsFilter.BUDGET_EXCEEDED_METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/company")
+                .counter();
+
+        assertThat(overBudget).isNotNull();
+        assertThat(overBudget.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void mostRepeated_should_returnTheStatementIssuedTheMostTimes() {
+
+        SqlStatementCounter counter = new SqlStatementCounter();
+
+        SqlStatementCounter.reset();
+
+        counter.inspect("select company");
+        counter.inspect("select person");
+        counter.inspect("select person");
+
+        assertThat(SqlStatementCounter.count()).isEqualTo(3);
+        assertThat(SqlStatementCounter.mostRepeated().getKey()).isEqualTo("select person");
+        assertThat(SqlStatementCounter.mostRepeated().getValue()).isEqualTo(2);
+    }
+
+    @Test
+    public void prometheusEndpoint_should_exposeTheMetrics() throws Exception {
+
+        this.mvc.perform(get("/company")).andExpect(status().isOk());
+
+        String metrics = this.mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(metrics)
+                .contains("app_service_calls_seconds_count")
+                .contains("app_repository_calls_seconds_count")
+                .contains("http_server_requests_sql_statements_count")
+                .contains("hikaricp_connections_acquire_seconds");
+    }
+}
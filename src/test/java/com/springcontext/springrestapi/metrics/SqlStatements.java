@@ -0,0 +1,24 @@
+package com.springcontext.springrestapi.metrics;
+
+/**
+ * Test helper pinning the number of SQL statements an action issues on the current thread, e.g.
+ * {@code assertThat(SqlStatements.countDuring(() -> mvc.perform(get("/person/1")))).isEqualTo(1)}.
+ */
+public final class SqlStatements {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private SqlStatements() {
+    }
+
+    public static long countDuring(Action action) throws Exception {
+        SqlStatementCounter.reset();
+
+        action.run();
+
+        return SqlStatementCounter.count();
+    }
+}
@@ -0,0 +1,77 @@
+package com.springcontext.springrestapi.migrations;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class V2__Drop_companies_employeesTest {
+
+    private static final String URL = "jdbc:h2:mem:migration";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        this.connection = DriverManager.getConnection(URL, "sa", "sa");
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE companies (id BIGINT PRIMARY KEY)");
+            statement.execute("CREATE TABLE people (id BIGINT PRIMARY KEY, company_id BIGINT)");
+            statement.execute("CREATE TABLE companies_employees (company_id BIGINT, employees_id BIGINT)");
+            statement.execute("INSERT INTO companies VALUES (1), (2)");
+            statement.execute("INSERT INTO people VALUES (1, NULL), (2, 2), (3, NULL)");
+            statement.execute("INSERT INTO companies_employees VALUES (1, 1), (2, 2)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+
+        this.connection.close();
+    }
+
+    @Test
+    public void migrate_should_moveLinksToForeignKeyAndDropJoinTable() throws Exception {
+
+        new V2__Drop_companies_employees().migrate(this.connection);
+
+        assertThat(this.companyOf(1)).isEqualTo(1L);
+        assertThat(this.companyOf(2)).isEqualTo(2L);
+        assertThat(this.companyOf(3)).isNull();
+
+        try (ResultSet tables = this.connection.getMetaData().getTables(null, null, "COMPANIES_EMPLOYEES", null)) {
+            assertThat(tables.next()).isFalse();
+        }
+    }
+
+    @Test
+    public void migrate_should_doNothingWhenJoinTableDoesNotExist() throws Exception {
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP TABLE companies_employees");
+        }
+
+        new V2__Drop_companies_employees().migrate(this.connection);
+
+        assertThat(this.companyOf(1)).isNull();
+    }
+
+    private Long companyOf(long personId) throws Exception {
+        try (Statement statement = this.connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT company_id FROM people WHERE id = " + personId)) {
+            result.next();
+
+            return (Long) result.getObject(1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.springcontext.springrestapi.migrations;
+
+import com.springcontext.springrestapi.entities.Address;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class V3__Deduplicate_addressesTest {
+
+    private static final String URL = "jdbc:h2:mem:migration;MODE=MySQL";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        this.connection = DriverManager.getConnection(URL, "sa", "sa");
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE people (id BIGINT PRIMARY KEY)");
+            statement.execute(
+                    "CREATE TABLE addresses (id BIGINT PRIMARY KEY, street VARCHAR(255), street_number INT, "
+                            + "zip_code VARCHAR(255), city VARCHAR(255), country VARCHAR(255))"
+            );
+            statement.execute(
+                    "CREATE TABLE people_addresses (people_id BIGINT, addresses_id BIGINT, "
+                            + "PRIMARY KEY (people_id, addresses_id))"
+            );
+            statement.execute("INSERT INTO people VALUES (1), (2), (3)");
+            statement.execute(
+                    "INSERT INTO addresses VALUES "
+                            + "(1, 'Main street', 1, 'A0B 1C2', 'Vancouver', 'Canada'), "
+                            + "(2, 'Main street', 1, 'A0B 1C2', 'Vancouver', 'Canada'), "
+                            + "(3, 'Main street', 2, 'A0B 1C2', 'Vancouver', 'Canada'), "
+                            + "(4, 'Main street', 1, 'A0B 1C2', 'Vancouver', 'Canada'), "
+                            + "(5, 'main street ', 1, 'a0b 1c2', 'VANCOUVER', 'Canada')"
+            );
+            statement.execute("INSERT INTO people_addresses VALUES (1, 1), (1, 2), (2, 2), (2, 3), (3, 4), (3, 5)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+
+        this.connection.close();
+    }
+
+    @Test
+    public void migrate_should_mergeDuplicatesWhateverTheCaseIntoTheOldestAddress() throws Exception {
+
+        new V3__Deduplicate_addresses().migrate(this.connection);
+
+        assertThat(this.ids("SELECT id FROM addresses ORDER BY id")).containsExactly(1L, 3L);
+        assertThat(this.ids("SELECT addresses_id FROM people_addresses WHERE people_id = 1")).containsExactly(1L);
+        assertThat(this.ids("SELECT addresses_id FROM people_addresses WHERE people_id = 2 ORDER BY addresses_id"))
+                .containsExactly(1L, 3L);
+        assertThat(this.ids("SELECT addresses_id FROM people_addresses WHERE people_id = 3")).containsExactly(1L);
+    }
+
+    @Test
+    public void migrate_should_rejectNewDuplicates() throws Exception {
+
+        new V3__Deduplicate_addresses().migrate(this.connection);
+
+        assertThatThrownBy(() -> {
+            try (Statement statement = this.connection.createStatement()) {
+                statement.execute(
+                        "INSERT INTO addresses VALUES (6, 'Main street', 2, 'A0B 1C2', 'Vancouver', 'Canada', '"
+                                + Address.hashLocation("Main street", 2, "A0B 1C2", "Vancouver", "Canada") + "')"
+                );
+            }
+        }).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    public void migrate_should_doNothingWhenAddressesTableDoesNotExist() throws Exception {
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP TABLE people_addresses");
+            statement.execute("DROP TABLE addresses");
+        }
+
+        new V3__Deduplicate_addresses().migrate(this.connection);
+
+        try (ResultSet tables = this.connection.getMetaData().getTables(null, null, "ADDRESSES", null)) {
+            assertThat(tables.next()).isFalse();
+        }
+    }
+
+    private List<Long> ids(String query) throws Exception {
+        List<Long> ids = new ArrayList<>();
+
+        try (Statement statement = this.connection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+
+            while (result.next()) {
+                ids.add(result.getLong(1));
+            }
+        }
+
+        return ids;
+    }
+}
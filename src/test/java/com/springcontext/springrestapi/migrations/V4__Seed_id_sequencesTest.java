@@ -0,0 +1,122 @@
+package com.springcontext.springrestapi.migrations;
+
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class V4__Seed_id_sequencesTest {
+
+    private static final String URL = "jdbc:h2:mem:sequences;MODE=MySQL";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        this.connection = DriverManager.getConnection(URL, "sa", "sa");
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE people (id BIGINT PRIMARY KEY)");
+            statement.execute("CREATE TABLE companies (id BIGINT PRIMARY KEY)");
+            statement.execute("INSERT INTO people VALUES (1), (2), (73)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+
+        this.connection.close();
+    }
+
+    @Test
+    public void migrate_should_startTheFirstPoolAfterTheGreatestStoredId() throws Exception {
+
+        new V4__Seed_id_sequences().migrate(this.connection);
+
+        assertThat(this.nextId("people_seq")).isEqualTo(74L);
+        assertThat(this.nextId("companies_seq")).isEqualTo(1L);
+    }
+
+    @Test
+    public void migrate_should_raiseASequenceCreatedByHibernate() throws Exception {
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE people_seq (next_val BIGINT)");
+            statement.execute("INSERT INTO people_seq VALUES (1)");
+        }
+
+        new V4__Seed_id_sequences().migrate(this.connection);
+
+        assertThat(this.nextId("people_seq")).isEqualTo(74L);
+    }
+
+    @Test
+    public void migrate_should_keepASequenceAlreadyPastTheStoredIds() throws Exception {
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE people_seq (next_val BIGINT)");
+            statement.execute("INSERT INTO people_seq VALUES (1000)");
+        }
+
+        new V4__Seed_id_sequences().migrate(this.connection);
+
+        assertThat(this.nextId("people_seq")).isEqualTo(951L);
+    }
+
+    @Test
+    public void migrate_should_doNothingWhenTheEntityTableDoesNotExist() throws Exception {
+
+        new V4__Seed_id_sequences().migrate(this.connection);
+
+        assertThat(Migrations.tableExists(this.connection, "addresses_seq")).isFalse();
+    }
+
+    /**
+     * Generates an id the way Hibernate does on MySQL: a pooled optimizer of size 50 over the sequence table.
+     */
+    private long nextId(String sequenceTable) {
+        Optimizer optimizer = OptimizerFactory.buildOptimizer(
+                StandardOptimizerDescriptor.POOLED.getExternalName(), Long.class, 50, 1
+        );
+
+        return (Long) optimizer.generate(new AccessCallback() {
+
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                try (Statement statement = V4__Seed_id_sequencesTest.this.connection.createStatement();
+                     ResultSet nextValue = statement.executeQuery("SELECT next_val FROM " + sequenceTable)) {
+                    nextValue.next();
+
+                    long value = nextValue.getLong(1);
+
+                    statement.executeUpdate("UPDATE " + sequenceTable + " SET next_val = " + (value + 50));
+
+                    return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(value);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        });
+    }
+}
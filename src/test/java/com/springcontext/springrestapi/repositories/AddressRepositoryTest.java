@@ -0,0 +1,103 @@
+package com.springcontext.springrestapi.repositories;
+
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.entities.Person;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against H2 in MySQL mode, the schema being generated by Hibernate as on a fresh MySQL database.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:addresses;MODE=MySQL;DB_CLOSE_DELAY=-1")
+public class AddressRepositoryTest {
+
+    private static final String COUNTRY = "Canada";
+    private static final String CITY = "Vancouver";
+    private static final String ZIP_CODE = "A0A 0A0";
+    private static final String STREET = "Main street";
+    private static final Integer STREET_NUMBER = 1234;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @After
+    public void tearDown() {
+        this.personRepository.deleteAll();
+        this.addressRepository.deleteAll();
+    }
+
+    @Test
+    public void save_should_rejectAStoredLocationWhateverTheCase() {
+
+        this.addressRepository.saveAndFlush(createAddress(CITY));
+
+        assertThatThrownBy(() -> this.addressRepository.saveAndFlush(createAddress(" " + CITY.toUpperCase())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    public void insertIfAbsent_should_insertUnknownLocation() {
+
+        Address address = createAddress(CITY);
+
+        Boolean inserted = new TransactionTemplate(this.transactionManager)
+                .execute(status -> this.addressRepository.insertIfAbsent(address));
+
+        assertThat(inserted).isTrue();
+        assertThat(this.addressRepository.findByLocationHash(address.getLocationHash())).isPresent();
+    }
+
+    @Test
+    public void insertIfAbsent_should_keepTheTransactionUsableWhenTheLocationIsStored() {
+
+        Address storedAddress = this.addressRepository.save(createAddress(CITY));
+
+        Long personId = new TransactionTemplate(this.transactionManager).execute(status -> {
+            Address address = createAddress(CITY.toLowerCase());
+
+            assertThat(this.addressRepository.insertIfAbsent(address)).isFalse();
+
+            Person person = new Person();
+
+            person.setFirstname("John");
+            person.setLastname("Doe");
+            person.addAddress(this.addressRepository.findLockedByLocationHash(address.getLocationHash()).get());
+
+            return this.personRepository.save(person).getId();
+        });
+
+        assertThat(this.addressRepository.count()).isEqualTo(1);
+        assertThat(this.personRepository.findWithAddressesById(personId).get().getAddresses())
+                .extracting(Address::getId)
+                .containsExactly(storedAddress.getId());
+    }
+
+    private static Address createAddress(String city) {
+        Address address = new Address();
+
+        address.setCountry(COUNTRY);
+        address.setCity(city);
+        address.setZipCode(ZIP_CODE);
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+
+        return address;
+    }
+}
@@ -1,13 +1,26 @@
 package com.springcontext.springrestapi.repositories;
 
+import com.springcontext.springrestapi.entities.Address;
 import com.springcontext.springrestapi.entities.Company;
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,10 +29,29 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class CompanyRepositoryTest {
 
     private static final String COMPANY_NAME = "Spring-Context";
+    private static final String COMPANY_NAME_2 = "Spring-Context_2";
+    private static final String COMPANY_NAME_3 = "Spring-Context_3";
+
+    private static final String FIRST_NAME = "John";
+    private static final String LAST_NAME = "Doe";
+    private static final String CITY = "Vancouver";
+    private static final String CITY_2 = "Burnaby";
 
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     public void save_should_createNewCompanyerson() {
 
@@ -54,6 +86,239 @@ public class CompanyRepositoryTest {
         assertThat(companies).isNotNull().isEmpty();
     }
 
+    @Test
+    public void findByIdGreaterThan_should_walkCompaniesByKeyset() {
+
+        this.createCompany();
+        this.createCompanies(COMPANY_NAME_2, COMPANY_NAME_3);
+
+        List<Company> firstPage = this.companyRepository.findByIdGreaterThanOrderByIdAsc(0, PageRequest.of(0, 2));
+
+        assertThat(firstPage).isNotNull().hasSize(2);
+        assertThat(firstPage.get(0).getId()).isLessThan(firstPage.get(1).getId());
+
+        List<Company> secondPage = this.companyRepository.findByIdGreaterThanOrderByIdAsc(
+                firstPage.get(1).getId(),
+                PageRequest.of(0, 2)
+        );
+
+        assertThat(secondPage).isNotNull().hasSize(1);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(1).getId());
+    }
+
+    @Test
+    @Transactional
+    public void searchByName_should_walkMatchesByName() {
+
+        this.companyRepository.deleteAll();
+        this.createCompanies("Spring-Context", "Spring", "Acme", "Springfield");
+
+        List<Company> firstPage = this.companyRepository.searchByName("Spring%", "", 0, PageRequest.of(0, 2));
+
+        assertThat(firstPage).extracting(Company::getName).containsExactly("Spring", "Spring-Context");
+
+        // the next page does not need the last company of the previous one to still exist
+        this.companyRepository.delete(firstPage.get(1));
+
+        List<Company> secondPage = this.companyRepository.searchByName(
+                "Spring%",
+                firstPage.get(1).getName(),
+                firstPage.get(1).getId(),
+                PageRequest.of(0, 2)
+        );
+
+        assertThat(secondPage).extracting(Company::getName).containsExactly("Springfield");
+    }
+
+    @Test
+    public void findEmployeeRows_should_issueTheSameNumberOfQueriesWhateverTheEmployeeCount() {
+
+        long fewEmployeesQueries = this.countEmployeeRowsQueries(2);
+        long manyEmployeesQueries = this.countEmployeeRowsQueries(50);
+
+        assertThat(fewEmployeesQueries).isEqualTo(1);
+        assertThat(manyEmployeesQueries).isEqualTo(fewEmployeesQueries);
+    }
+
+    private long countEmployeeRowsQueries(int employeeCount) {
+
+        this.createCompany();
+
+        Company company = this.companyRepository.findAll().get(0);
+
+        new TransactionTemplate(this.transactionManager).execute(status -> {
+            Address address = this.addressRepository.save(createAddress(CITY));
+            Address address2 = this.addressRepository.save(createAddress(CITY_2));
+
+            for (int i = 0; i < employeeCount; i++) {
+                Person person = new Person();
+
+                person.setFirstname(FIRST_NAME + i);
+                person.setLastname(LAST_NAME);
+                person.addAddress(address);
+                person.addAddress(address2);
+                person.setCompany(company);
+
+                this.personRepository.save(person);
+            }
+
+            return null;
+        });
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        List<PersonAddressRow> rows = this.companyRepository.findEmployeeRowsWithAddresses(company.getId());
+
+        long queries = statistics.getPrepareStatementCount();
+
+        // a whole employee list would be a single entry of a region bounded by entry count
+        assertThat(statistics.getQueryCachePutCount()).isZero();
+
+        assertThat(rows).isNotNull().hasSize(employeeCount * 2);
+        assertThat(rows.get(0).getFirstname()).isNotNull().startsWith(FIRST_NAME);
+        assertThat(rows.get(0).getCity()).isNotNull().isEqualTo(CITY);
+        assertThat(rows.get(0).getCompanyId()).isNotNull().isEqualTo(company.getId());
+
+        this.personRepository.deleteAll();
+        this.addressRepository.deleteAll();
+        this.companyRepository.deleteAll();
+
+        return queries;
+    }
+
+    @Test
+    public void deleteCompanyById_should_detachEmployeesWithAFixedNumberOfStatements() {
+
+        this.createCompany();
+
+        Company company = this.companyRepository.findAll().get(0);
+
+        for (int i = 0; i < 50; i++) {
+            Person person = new Person();
+
+            person.setFirstname(FIRST_NAME + i);
+            person.setLastname(LAST_NAME);
+            person.setCompany(company);
+
+            this.personRepository.save(person);
+        }
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        Integer detachedEmployees = new TransactionTemplate(this.transactionManager).execute(status -> {
+            int detached = this.personRepository.detachFromCompany(company.getId());
+
+            this.companyRepository.deleteCompanyById(company.getId());
+
+            return detached;
+        });
+
+        // people update and company delete
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(detachedEmployees).isEqualTo(50);
+        assertThat(this.companyRepository.findAll()).isEmpty();
+        assertThat(this.personRepository.findAll()).hasSize(50).allMatch(person -> person.getCompany() == null);
+
+        this.personRepository.deleteAll();
+    }
+
+    @Test
+    public void detachFromCompany_should_bumpTheVersionOfTheEmployees() {
+
+        this.createCompany();
+
+        Company company = this.companyRepository.findAll().get(0);
+
+        Person person = new Person();
+
+        person.setFirstname(FIRST_NAME);
+        person.setLastname(LAST_NAME);
+        person.setCompany(company);
+
+        Person employee = this.personRepository.save(person);
+
+        new TransactionTemplate(this.transactionManager)
+                .execute(status -> this.personRepository.detachFromCompany(company.getId()));
+
+        Person detachedEmployee = this.personRepository.findById(employee.getId()).get();
+
+        assertThat(detachedEmployee.getCompany()).isNull();
+        assertThat(detachedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+
+        this.personRepository.deleteAll();
+        this.companyRepository.deleteAll();
+    }
+
+    @Test
+    public void hashingAndLogging_should_notLoadEmployees() {
+
+        this.createCompany();
+
+        Company company = this.companyRepository.findAll().get(0);
+
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+
+            person.setFirstname(FIRST_NAME + i);
+            person.setLastname(LAST_NAME);
+            person.setCompany(company);
+
+            this.personRepository.save(person);
+        }
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        new TransactionTemplate(this.transactionManager).execute(status -> {
+            Company fetchedCompany = this.companyRepository.findById(company.getId()).orElse(null);
+
+            assertThat(fetchedCompany).isNotNull();
+
+            statistics.clear();
+
+            Set<Company> companies = new HashSet<>();
+
+            companies.add(fetchedCompany);
+            companies.add(company);
+
+            String logged = fetchedCompany.toString();
+
+            assertThat(companies).hasSize(1);
+            assertThat(logged).contains(COMPANY_NAME).doesNotContain(FIRST_NAME);
+            assertThat(Hibernate.isInitialized(fetchedCompany.getEmployees())).isFalse();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+
+            return null;
+        });
+
+        this.personRepository.deleteAll();
+    }
+
+    private static Address createAddress(String city) {
+        Address address = new Address();
+
+        address.setCountry("Canada");
+        address.setCity(city);
+        address.setZipCode("A0B 1C2");
+        address.setStreet("Main street");
+        address.setStreetNumber(1234);
+
+        return address;
+    }
+
+    private void createCompanies(String... names) {
+        for (String name : names) {
+            Company company = new Company();
+
+            company.setName(name);
+
+            this.companyRepository.save(company);
+        }
+    }
+
     private void createCompany() {
 
         this.companyRepository.deleteAll();
@@ -0,0 +1,14 @@
+package com.springcontext.springrestapi.repositories;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LikePatternsTest {
+
+    @Test
+    public void prefix_should_escapeWildcards() {
+        assertThat(LikePatterns.prefix("Doe")).isEqualTo("Doe%");
+        assertThat(LikePatterns.prefix("100%_!")).isEqualTo("100!%!_!!%");
+    }
+}
@@ -2,15 +2,35 @@ package com.springcontext.springrestapi.repositories;
 
 import com.springcontext.springrestapi.entities.Address;
 import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.projections.LocationCount;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
+import com.springcontext.springrestapi.services.PersonService;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @SpringBootTest
@@ -32,7 +52,20 @@ public class PersonRepositoryTest {
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
+    @Transactional
     public void save_should_createNewPerson() {
 
         this.createPersonAndAddress();
@@ -43,11 +76,11 @@ public class PersonRepositoryTest {
 
         Person createdPerson = persons.get(0);
 
-        List<Address> createdAddresses = createdPerson.getAddresses();
+        Set<Address> createdAddresses = createdPerson.getAddresses();
 
         assertThat(createdAddresses).isNotNull().hasSize(1);
 
-        Address address = createdAddresses.get(0);
+        Address address = createdAddresses.iterator().next();
 
         assertThat(address.getCity()).isNotNull().isNotEmpty().isEqualTo(CITY);
         assertThat(address.getCountry()).isNotNull().isNotEmpty().isEqualTo(COUNTRY);
@@ -83,23 +116,459 @@ public class PersonRepositoryTest {
         assertThat(people).isNotNull().isEmpty();
     }
 
+    @Test
+    @Transactional
+    public void streamAllRows_should_streamEveryPersonWithItsAddresses() {
+
+        this.createPersonAndAddress();
+
+        try (Stream<PersonAddressRow> rows = this.personRepository.streamAllRows()) {
+            List<PersonAddressRow> streamedRows = rows.collect(Collectors.toList());
+
+            assertThat(streamedRows).isNotNull().hasSize(1);
+            assertThat(streamedRows.get(0).getFirstname()).isNotNull().isEqualTo(FIRST_NAME);
+            assertThat(streamedRows.get(0).getCompanyId()).isNull();
+            assertThat(streamedRows.get(0).getAddressId()).isNotNull();
+        }
+    }
+
+    @Test
+    public void findById_should_hitSecondLevelCache() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        this.personRepository.findById(id);
+        this.personRepository.findById(id);
+
+        assertThat(statistics.getSecondLevelCacheStatistics(Person.class.getName()).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void findById_should_notLoadAddresses() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        Person person = this.personRepository.findById(id).orElse(null);
+
+        assertThat(person).isNotNull();
+        assertThat(Hibernate.isInitialized(person.getAddresses())).isFalse();
+    }
+
+    @Test
+    @Transactional
+    public void findAllWithCompanyByIdIn_should_skipTheIdsMatchingNoPerson() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        List<Person> people = this.personRepository.findAllWithCompanyByIdIn(Arrays.asList(id, id + 1));
+
+        assertThat(people).hasSize(1);
+        assertThat(people.get(0).getId()).isEqualTo(id);
+    }
+
+    @Test
+    public void findAllWithAddressesByIdIn_should_loadAddressesWithPeople() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        List<Person> people = this.personRepository.findAllWithAddressesByIdIn(Arrays.asList(id, id + 1));
+
+        assertThat(people).hasSize(1);
+        assertThat(Hibernate.isInitialized(people.get(0).getAddresses())).isTrue();
+        assertThat(people.get(0).getAddresses()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findWithAddressesById_should_loadAddressesWithPerson() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        Person person = this.personRepository.findWithAddressesById(id).orElse(null);
+
+        assertThat(person).isNotNull();
+        assertThat(Hibernate.isInitialized(person.getAddresses())).isTrue();
+        assertThat(person.getAddresses()).hasSize(1);
+        assertThat(person.getAddresses().iterator().next().getCity()).isNotNull().isEqualTo(CITY);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void hashingAndLogging_should_notLoadAddresses() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        new TransactionTemplate(this.transactionManager).execute(status -> {
+            Person person = this.personRepository.findById(id).orElse(null);
+
+            assertThat(person).isNotNull();
+
+            statistics.clear();
+
+            Set<Person> people = new HashSet<>();
+
+            people.add(person);
+            people.add(this.personRepository.getOne(id));
+
+            String logged = person.toString();
+
+            assertThat(people).hasSize(1);
+            assertThat(logged).contains(FIRST_NAME).doesNotContain(CITY);
+            assertThat(Hibernate.isInitialized(person.getAddresses())).isFalse();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+
+            return null;
+        });
+    }
+
+    @Test
+    public void save_should_keepTransientPersonInHashSet() {
+
+        this.personRepository.deleteAll();
+
+        Person person = new Person();
+
+        person.setFirstname(FIRST_NAME);
+        person.setLastname(LAST_NAME);
+
+        Set<Person> people = new HashSet<>();
+
+        people.add(person);
+
+        Person savedPerson = this.personRepository.save(person);
+
+        assertThat(savedPerson.getId()).isNotNull();
+        assertThat(people).contains(savedPerson);
+        assertThat(people).doesNotContain(new Person());
+
+        this.personRepository.deleteAll();
+    }
+
+    @Test
+    public void addresses_should_beEqualByNaturalKey() {
+
+        Set<Address> addresses = new HashSet<>();
+
+        addresses.add(createAddress());
+        addresses.add(createAddress());
+
+        Address otherAddress = createAddress();
+
+        otherAddress.setStreetNumber(STREET_NUMBER + 1);
+
+        addresses.add(otherAddress);
+
+        assertThat(addresses).hasSize(2);
+    }
+
+    @Test
+    public void addAddress_should_issueTheSameStatementsWhateverTheAddressCount() {
+
+        this.createPersonAndAddress();
+
+        Long id = this.personRepository.findAll().get(0).getId();
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> statementCounts = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            Address address = createAddress();
+
+            address.setStreetNumber(STREET_NUMBER + i + 1);
+
+            statistics.clear();
+
+            this.personService.addAddress(id, address);
+
+            statementCounts.add(statistics.getPrepareStatementCount());
+
+            // a single join-table row is added, the existing ones are never deleted and reinserted
+            assertThat(statistics.getCollectionRecreateCount()).isEqualTo(0);
+            assertThat(this.addressRepository.count()).isEqualTo(i + 2);
+        }
+
+        // address lookup, locking read of the address inserted through JDBC, addresses collection load and
+        // join-table row insert, plus the occasional pooled sequence call
+        assertThat(statementCounts).allMatch(count -> count <= 5);
+
+        this.personRepository.deleteAll();
+    }
+
+    @Test
+    public void addAddress_should_reuseAnExistingAddress() {
+
+        this.createPersonAndAddress();
+
+        Person person = new Person();
+
+        person.setFirstname(FIRST_NAME);
+        person.setLastname(LAST_NAME);
+
+        Long id = this.personRepository.save(person).getId();
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        this.personService.addAddress(id, createAddress());
+
+        // only the join-table row is written, the address row is shared
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(0);
+        assertThat(this.addressRepository.count()).isEqualTo(1);
+        assertThat(this.personRepository.findWithAddressesById(id).get().getAddresses()).hasSize(1);
+
+        this.personService.addAddress(id, createAddress());
+
+        assertThat(this.addressRepository.count()).isEqualTo(1);
+        assertThat(this.personRepository.findWithAddressesById(id).get().getAddresses()).hasSize(1);
+    }
+
+    @Test
+    public void addAddress_should_incrementTheVersionOfThePerson() {
+
+        this.createPersonAndAddress();
+
+        Person person = new Person();
+
+        person.setFirstname(FIRST_NAME);
+        person.setLastname(LAST_NAME);
+
+        Person savedPerson = this.personRepository.save(person);
+
+        assertThat(savedPerson.getVersion()).isEqualTo(0L);
+
+        Set<Long> versions = Collections.singleton(0L);
+
+        Long version =
+                this.personService.addAddress(savedPerson.getId(), createAddress(), versions, Person::getVersion);
+
+        assertThat(version).isEqualTo(1L);
+        assertThat(this.personRepository.findById(savedPerson.getId()).get().getVersion()).isEqualTo(1L);
+
+        assertThatThrownBy(() -> this.personService.addAddress(
+                savedPerson.getId(), createAddress(), versions, Person::getVersion
+        ))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    public void create_should_linkExistingAddresses() {
+
+        this.createPersonAndAddress();
+
+        List<Person> people = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+
+            person.setFirstname(FIRST_NAME + i);
+            person.setLastname(LAST_NAME);
+            person.addAddress(createAddress());
+
+            people.add(person);
+        }
+
+        this.personService.create(people.get(0));
+        this.personService.createAll(people.subList(1, 3));
+
+        assertThat(this.personRepository.count()).isEqualTo(4);
+        assertThat(this.addressRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void saveAll_should_batchInserts() {
+
+        this.personRepository.deleteAll();
+
+        List<Person> people = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            Person person = new Person();
+
+            person.setFirstname(FIRST_NAME + i);
+            person.setLastname(LAST_NAME);
+
+            people.add(person);
+        }
+
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        this.personRepository.saveAll(people);
+
+        assertThat(this.personRepository.count()).isEqualTo(200);
+
+        // 4 insert batches, a handful of pooled sequence calls and the count, instead of 200 inserts
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+
+        this.personRepository.deleteAll();
+    }
+
+    @Test
+    @Transactional
+    public void searchByName_should_matchEitherNameByPrefixInNameOrder() {
+
+        this.personRepository.deleteAll();
+
+        Person doer = this.createPerson("Jane", "Doer");
+        Person doe = this.createPerson("John", "Doe");
+        Person doeSmith = this.createPerson("Adam", "Doe-Smith");
+        Person dora = this.createPerson("Dora", "Bell");
+        Person donDonovan = this.createPerson("Don", "Donovan");
+
+        this.createPerson("John", "Smith");
+
+        List<Person> firstPage = this.personRepository.searchByName("Do%", "", "", 0, 3);
+
+        assertThat(firstPage).containsExactly(dora, doe, doeSmith);
+
+        // the next page does not need the last person of the previous one to still exist
+        this.personRepository.delete(doeSmith);
+
+        List<Person> secondPage = this.personRepository.searchByName(
+                "Do%", doeSmith.getLastname(), doeSmith.getFirstname(), doeSmith.getId(), 3
+        );
+
+        assertThat(secondPage).containsExactly(doer, donDonovan);
+    }
+
+    @Test
+    @Transactional
+    public void searchByName_should_matchEscapedWildcardsLiterally() {
+
+        this.personRepository.deleteAll();
+
+        Person percent = this.createPerson("John", "100%");
+
+        this.createPerson("John", "1000");
+
+        assertThat(this.personRepository.searchByName("100!%%", "", "", 0, 10)).containsExactly(percent);
+    }
+
+    @Test
+    @Transactional
+    public void searchByFullName_should_matchBothNamesInEitherOrder() {
+
+        this.personRepository.deleteAll();
+
+        Person johnDoe = this.createPerson("John", "Doe");
+        Person doeJohnson = this.createPerson("Doe", "Johnson");
+
+        this.createPerson("John", "Smith");
+
+        assertThat(this.personRepository.searchByFullName("Jo%", "Do%", "", "", 0, 10))
+                .containsExactly(johnDoe, doeJohnson);
+    }
+
+    @Test
+    @Transactional
+    public void findByLocation_should_matchEveryGivenFieldOfOneAddress() {
+
+        this.personRepository.deleteAll();
+
+        Person parisian = this.createPerson("Jean", "Dupont", createAddress("75011", "Paris", "France"));
+        Person lyonnais = this.createPerson("Marie", "Curie", createAddress("69001", "Lyon", "France"));
+        Person berliner = this.createPerson("Hans", "Muller", createAddress("10115", "Berlin", "Germany"));
+
+        berliner.addAddress(parisian.getAddresses().iterator().next());
+        this.personRepository.save(berliner);
+
+        assertThat(this.personRepository.findByLocation("75011", null, null, 0, 10))
+                .containsExactly(parisian, berliner);
+        assertThat(this.personRepository.findByLocation(null, null, "France", 0, 10))
+                .containsExactly(parisian, lyonnais, berliner);
+        assertThat(this.personRepository.findByLocation(null, "Lyon", "Germany", 0, 10))
+                .isEmpty();
+        assertThat(this.personRepository.findByLocation(null, null, "France", parisian.getId(), 1))
+                .containsExactly(lyonnais);
+    }
+
+    @Test
+    @Transactional
+    public void countByCountryAndCity_should_countEachPersonOncePerLocation() {
+
+        this.personRepository.deleteAll();
+
+        Person parisian = this.createPerson("Jean", "Dupont", createAddress("75011", "Paris", "France"));
+
+        parisian.addAddress(createAddress("75012", "Paris", "France"));
+        this.personRepository.save(parisian);
+
+        this.createPerson("Marie", "Curie", createAddress("69001", "Lyon", "France"));
+        this.createPerson("Hans", "Muller", createAddress("10115", "Berlin", "Germany"));
+
+        assertThat(this.personRepository.countByCountry()).containsExactly(
+                new LocationCount("France", 2L),
+                new LocationCount("Germany", 1L)
+        );
+        assertThat(this.personRepository.countByCity("France")).containsExactly(
+                new LocationCount("France", "Lyon", 1L),
+                new LocationCount("France", "Paris", 1L)
+        );
+        assertThat(this.personRepository.countByCity(null)).hasSize(3);
+    }
+
+    private Person createPerson(String firstname, String lastname, Address address) {
+        Person person = new Person();
+
+        person.setFirstname(firstname);
+        person.setLastname(lastname);
+        person.addAddress(address);
+
+        return this.personRepository.save(person);
+    }
+
+    private Person createPerson(String firstname, String lastname) {
+        Person person = new Person();
+
+        person.setFirstname(firstname);
+        person.setLastname(lastname);
+
+        return this.personRepository.save(person);
+    }
+
     private void createPersonAndAddress() {
 
         this.personRepository.deleteAll();
+        this.addressRepository.deleteAll();
+        this.addressRepository.flush();
 
         List<Person> persons = this.personRepository.findAll();
 
         assertThat(persons).isNotNull().isEmpty();
 
-        Address address = new Address();
+        Address address = createAddress();
         Person person = new Person();
 
-        address.setCountry(COUNTRY);
-        address.setCity(CITY);
-        address.setZipCode(ZIP_CODE);
-        address.setStreet(STREET);
-        address.setStreetNumber(STREET_NUMBER);
-
         person.setFirstname(FIRST_NAME);
         person.setLastname(LAST_NAME);
 
@@ -108,4 +577,28 @@ public class PersonRepositoryTest {
 
         this.personRepository.save(person);
     }
+
+    private static Address createAddress(String zipCode, String city, String country) {
+        Address address = new Address();
+
+        address.setCountry(country);
+        address.setCity(city);
+        address.setZipCode(zipCode);
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+
+        return address;
+    }
+
+    private static Address createAddress() {
+        Address address = new Address();
+
+        address.setCountry(COUNTRY);
+        address.setCity(CITY);
+        address.setZipCode(ZIP_CODE);
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+
+        return address;
+    }
 }
@@ -0,0 +1,139 @@
+package com.springcontext.springrestapi.services;
+
+import com.springcontext.springrestapi.entities.Address;
+import com.springcontext.springrestapi.repositories.AddressRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+@SpringBootTest
+public class AddressServiceTest {
+
+    /* Address test values */
+
+    private static final Long ID = 1L;
+    private static final String COUNTRY = "Canada";
+    private static final String CITY = "Vancouver";
+    private static final String ZIP_CODE = "A0B 1C2";
+    private static final String STREET = "Main street";
+    private static final int STREET_NUMBER = 1234;
+    private static final String LOCATION_HASH = Address.hashLocation(STREET, STREET_NUMBER, ZIP_CODE, CITY, COUNTRY);
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    private AddressService addressService;
+
+    @Before
+    public void setUp() {
+        this.addressService = new AddressService(this.addressRepository);
+    }
+
+    @Test
+    public void resolve_should_insertUnknownAddress() {
+        Address address = createAddress(null);
+        Address savedAddress = createAddress(ID);
+
+        this.mockLookup(Optional.empty());
+        when(this.addressRepository.insertIfAbsent(address)).thenReturn(true);
+        when(this.addressRepository.findLockedByLocationHash(LOCATION_HASH)).thenReturn(Optional.of(savedAddress));
+
+        assertThat(this.addressService.resolve(address)).isSameAs(savedAddress);
+    }
+
+    @Test
+    public void resolve_should_returnTheAddressInsertedConcurrently() {
+        Address address = createAddress(null);
+        Address concurrentAddress = createAddress(ID);
+
+        this.mockLookup(Optional.empty());
+        when(this.addressRepository.insertIfAbsent(address)).thenReturn(false);
+        when(this.addressRepository.findLockedByLocationHash(LOCATION_HASH)).thenReturn(Optional.of(concurrentAddress));
+
+        assertThat(this.addressService.resolve(address)).isSameAs(concurrentAddress);
+    }
+
+    @Test
+    public void resolve_should_reuseStoredAddress() {
+        Address storedAddress = createAddress(ID);
+
+        this.mockLookup(Optional.of(storedAddress));
+
+        assertThat(this.addressService.resolve(createAddress(null))).isSameAs(storedAddress);
+
+        verify(this.addressRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    public void resolve_should_reuseStoredAddressWhateverTheCase() {
+        Address storedAddress = createAddress(ID);
+
+        this.mockLookup(Optional.of(storedAddress));
+
+        Address address = createAddress(null);
+
+        address.setCity(" " + CITY.toUpperCase() + " ");
+
+        assertThat(this.addressService.resolve(address)).isSameAs(storedAddress);
+    }
+
+    @Test
+    public void resolve_should_skipTheLookupForInternedAddress() {
+        Address storedAddress = createAddress(ID);
+
+        this.mockLookup(Optional.of(storedAddress));
+        when(this.addressRepository.findById(ID)).thenReturn(Optional.of(storedAddress));
+
+        this.addressService.resolve(createAddress(null));
+
+        assertThat(this.addressService.resolve(createAddress(null))).isSameAs(storedAddress);
+
+        verify(this.addressRepository, times(1)).findByLocationHash(LOCATION_HASH);
+    }
+
+    @Test
+    public void resolve_should_lookUpAgainWhenInternedAddressIsGone() {
+        Address storedAddress = createAddress(ID);
+
+        this.mockLookup(Optional.of(storedAddress));
+        when(this.addressRepository.findById(ID)).thenReturn(Optional.empty());
+
+        this.addressService.resolve(createAddress(null));
+
+        assertThat(this.addressService.resolve(createAddress(null))).isSameAs(storedAddress);
+
+        verify(this.addressRepository, times(2)).findByLocationHash(LOCATION_HASH);
+    }
+
+    private void mockLookup(Optional<Address> address) {
+        when(this.addressRepository.findByLocationHash(LOCATION_HASH)).thenReturn(address);
+    }
+
+    private static Address createAddress(Long id) {
+
+        Address address = new Address();
+
+        address.setId(id);
+        address.setCountry(COUNTRY);
+        address.setCity(CITY);
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+        address.setZipCode(ZIP_CODE);
+        address.updateLocationHash();
+
+        return address;
+    }
+}
@@ -2,6 +2,7 @@ package com.springcontext.springrestapi.services;
 
 import com.springcontext.springrestapi.entities.Company;
 import com.springcontext.springrestapi.repositories.CompanyRepository;
+import com.springcontext.springrestapi.repositories.projections.PersonAddressRow;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,10 +11,13 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -24,11 +28,22 @@ public class CompanyServiceTest {
 
     private static final Long ID = 1L;
     private static final Long NOT_FOUND_ID = 2L;
+    private static final String FIRSTNAME = "John";
+    private static final String LASTNAME = "Doe";
+
+    /* Address test values */
+
+    private static final String COUNTRY = "Canada";
+    private static final String CITY = "Vancouver";
+    private static final String ZIP_CODE = "A0B 1C2";
+    private static final String STREET = "Main street";
+    private static final int STREET_NUMBER = 1234;
 
     /* Company test values */
 
     private static final Long COMPANY_ID = 1L;
     private static final String COMPANY_NAME = "Spring-Context";
+    private static final int EMPLOYEE_COUNT = 3;
 
     @Mock
     private CompanyRepository companyRepository;
@@ -80,14 +95,68 @@ public class CompanyServiceTest {
         assertThat(company.isPresent()).isEqualTo(false);
     }
 
+    @Test
+    public void getEmployees_should_returnNullWhenCompanyDoesNotExist() {
+        when(this.companyRepository.existsById(NOT_FOUND_ID)).thenReturn(false);
+
+        assertThat(this.companyService.getEmployees(NOT_FOUND_ID)).isNull();
+    }
+
+    @Test
+    public void getEmployees_should_returnProjectedRows() {
+        PersonAddressRow row = new PersonAddressRow(ID, FIRSTNAME, LASTNAME, COMPANY_ID, 0L);
+
+        when(this.companyRepository.existsById(COMPANY_ID)).thenReturn(true);
+        when(this.companyRepository.findEmployeeRows(COMPANY_ID)).thenReturn(Collections.singletonList(row));
+
+        assertThat(this.companyService.getEmployees(COMPANY_ID)).isNotNull().containsExactly(row);
+    }
+
+    @Test
+    public void getEmployeesWithAddresses_should_returnNullWhenCompanyDoesNotExist() {
+        when(this.companyRepository.existsById(NOT_FOUND_ID)).thenReturn(false);
+
+        assertThat(this.companyService.getEmployeesWithAddresses(NOT_FOUND_ID)).isNull();
+    }
+
+    @Test
+    public void getEmployeesWithAddresses_should_returnProjectedRows() {
+        PersonAddressRow row = new PersonAddressRow(
+                ID, FIRSTNAME, LASTNAME, COMPANY_ID, ID, STREET, STREET_NUMBER, ZIP_CODE, CITY, COUNTRY, 0L, 0L
+        );
+
+        when(this.companyRepository.existsById(COMPANY_ID)).thenReturn(true);
+        when(this.companyRepository.findEmployeeRowsWithAddresses(COMPANY_ID))
+                .thenReturn(Collections.singletonList(row));
+
+        assertThat(this.companyService.getEmployeesWithAddresses(COMPANY_ID)).isNotNull().containsExactly(row);
+    }
+
+    @Test
+    public void exportEmployees_should_passEveryRowToTheConsumer() {
+        PersonAddressRow row = new PersonAddressRow(ID, FIRSTNAME, LASTNAME, COMPANY_ID, 0L);
+        PersonAddressRow row2 = new PersonAddressRow(NOT_FOUND_ID, FIRSTNAME, LASTNAME, COMPANY_ID, 0L);
+
+        when(this.companyRepository.streamEmployeeRows(COMPANY_ID)).thenReturn(Stream.of(row, row2));
+
+        List<PersonAddressRow> exportedRows = new ArrayList<>();
+
+        long count = this.companyService.exportEmployees(COMPANY_ID, false, exportedRows::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exportedRows).containsExactly(row, row2);
+    }
+
     @Test
     public void delete_should_properlyCallRepository() {
         ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
 
-        doNothing().when(this.companyRepository).deleteById(captor.capture());
+        when(this.personService.detachEmployees(ID)).thenReturn(EMPLOYEE_COUNT);
+        when(this.companyRepository.deleteCompanyById(captor.capture())).thenReturn(1);
 
-        this.companyService.delete(ID);
+        int detachedEmployees = this.companyService.delete(ID);
 
         assertThat(captor.getValue()).isNotNull().isEqualTo(ID);
+        assertThat(detachedEmployees).isEqualTo(EMPLOYEE_COUNT);
     }
 }
@@ -12,10 +12,15 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -44,24 +49,49 @@ public class PersonServiceTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private AddressService addressService;
+
+    @Mock
+    private EntityManager entityManager;
+
     private PersonService personService;
 
     @Before
     public void setUp() {
-        this.personService = new PersonService(this.personRepository);
+        this.personService = new PersonService(this.personRepository, this.addressService, this.entityManager);
     }
 
     @Test
     public void create_should_saveNewPerson() {
         Person person = createPerson();
+        Address storedAddress = createAddress();
 
+        when(this.addressService.resolve(any())).thenReturn(storedAddress);
         when(this.personRepository.save(person)).thenReturn(person);
 
         Person fetchedPerson = this.personService.create(person);
 
+        assertThat(fetchedPerson.getAddresses()).hasSize(1);
+        assertThat(fetchedPerson.getAddresses().iterator().next()).isSameAs(storedAddress);
+
         assertThat(fetchedPerson).isNotNull().isEqualToComparingFieldByFieldRecursively(person);
     }
 
+    @Test
+    public void createAll_should_saveChunkAndClearPersistenceContext() {
+        List<Person> people = Arrays.asList(createPerson(), createPerson());
+
+        when(this.addressService.resolve(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(this.personRepository.saveAll(people)).thenReturn(people);
+
+        List<Person> createdPeople = this.personService.createAll(people);
+
+        assertThat(createdPeople).isNotNull().hasSize(2);
+
+        verify(this.entityManager).clear();
+    }
+
     @Test
     public void getById_should_fetchExistingPerson() {
         Person person = createPerson();
@@ -82,6 +112,35 @@ public class PersonServiceTest {
         assertThat(person.isPresent()).isEqualTo(false);
     }
 
+    @Test
+    public void addAddress_should_linkTheStoredAddress() {
+        Person person = new Person();
+
+        person.setId(ID);
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        Address address = createAddress();
+        Address storedAddress = createAddress();
+
+        when(this.personRepository.findById(ID)).thenReturn(Optional.of(person));
+        when(this.addressService.resolve(address)).thenReturn(storedAddress);
+        when(this.personRepository.save(person)).thenReturn(person);
+
+        Person updatedPerson = this.personService.addAddress(ID, address);
+
+        assertThat(updatedPerson).isNotNull();
+        assertThat(updatedPerson.getAddresses()).hasSize(1);
+        assertThat(updatedPerson.getAddresses().iterator().next()).isSameAs(storedAddress);
+    }
+
+    @Test
+    public void addAddress_should_returnNullWhenPersonDoesNotExist() {
+        when(this.personRepository.findById(NOT_FOUND_ID)).thenReturn(Optional.empty());
+
+        assertThat(this.personService.addAddress(NOT_FOUND_ID, createAddress())).isNull();
+    }
+
     @Test
     public void delete_should_properlyCallRepository() {
         ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
@@ -99,13 +158,7 @@ public class PersonServiceTest {
 
         company.setName(COMPANY_NAME);
 
-        Address address = new Address();
-
-        address.setCountry(COUNTRY);
-        address.setCity(CITY);
-        address.setStreet(STREET);
-        address.setStreetNumber(STREET_NUMBER);
-        address.setZipCode(ZIP_CODE);
+        Address address = createAddress();
 
         Person person = new Person();
 
@@ -117,4 +170,17 @@ public class PersonServiceTest {
 
         return person;
     }
+
+    private static Address createAddress() {
+
+        Address address = new Address();
+
+        address.setCountry(COUNTRY);
+        address.setCity(CITY);
+        address.setStreet(STREET);
+        address.setStreetNumber(STREET_NUMBER);
+        address.setZipCode(ZIP_CODE);
+
+        return address;
+    }
 }
@@ -0,0 +1,93 @@
+package com.springcontext.springrestapi.transaction;
+
+import com.springcontext.springrestapi.entities.Person;
+import com.springcontext.springrestapi.repositories.PersonRepository;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest
+public class ReadOnlyHibernateJpaDialectTest {
+
+    private static final String FIRSTNAME = "John";
+    private static final String LASTNAME = "Doe";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Person person;
+
+    @Before
+    public void setUp() {
+        Person person = new Person();
+
+        person.setFirstname(FIRSTNAME);
+        person.setLastname(LASTNAME);
+
+        this.person = this.personRepository.save(person);
+    }
+
+    @After
+    public void tearDown() {
+        this.personRepository.deleteById(this.person.getId());
+    }
+
+    @Test
+    public void readOnlyTransaction_should_loadEntitiesReadOnlyWithoutFlushing() {
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.execute(status -> {
+            Session session = this.entityManager.unwrap(Session.class);
+            Person person = this.entityManager.find(Person.class, this.person.getId());
+
+            assertThat(session.isReadOnly(person)).isTrue();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+
+            person.setFirstname(FIRSTNAME + "_changed");
+
+            return null;
+        });
+
+        assertThat(this.personRepository.findById(this.person.getId()))
+                .hasValueSatisfying(person -> assertThat(person.getFirstname()).isEqualTo(FIRSTNAME));
+    }
+
+    @Test
+    public void readWriteTransaction_should_dirtyCheckItsEntities() {
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+
+        transactionTemplate.execute(status -> {
+            Session session = this.entityManager.unwrap(Session.class);
+            Person person = this.entityManager.find(Person.class, this.person.getId());
+
+            assertThat(session.isReadOnly(person)).isFalse();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+
+            return null;
+        });
+    }
+}